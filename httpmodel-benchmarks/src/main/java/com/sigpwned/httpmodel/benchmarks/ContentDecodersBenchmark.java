@@ -0,0 +1,101 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-benchmarks
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2026 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import com.sigpwned.httpmodel.core.io.ByteFilterSource;
+import com.sigpwned.httpmodel.core.io.filtered.ContentDecoders;
+
+/**
+ * Compares the pooled gzip decoder from {@link ContentDecoders#gzip()} against wrapping each entity
+ * in a new {@link GZIPInputStream}, which creates a new inflater for every entity. Run with
+ * {@code -prof gc} to see the difference in allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentDecodersBenchmark {
+  @Param({"1024", "65536", "1048576"})
+  public int entitySize;
+
+  private byte[] encoded;
+
+  private byte[] buf;
+
+  private ByteFilterSource pooled;
+
+  @Setup
+  public void setup() throws IOException {
+    // Half random, half repeated, so the entity compresses about as well as typical text
+    byte[] entity = new byte[entitySize];
+    new Random(entitySize).nextBytes(entity);
+    for (int i = entitySize / 2; i < entitySize; i++)
+      entity[i] = (byte) (i % 64);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(entity);
+    }
+    encoded = out.toByteArray();
+    buf = new byte[8192];
+    pooled = ContentDecoders.gzip();
+  }
+
+  @Benchmark
+  public void legacyGzip(Blackhole blackhole) throws IOException {
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(encoded))) {
+      drain(in, blackhole);
+    }
+  }
+
+  @Benchmark
+  public void pooledGzip(Blackhole blackhole) throws IOException {
+    try (InputStream in = pooled.filter(new ByteArrayInputStream(encoded))) {
+      drain(in, blackhole);
+    }
+  }
+
+  private void drain(InputStream in, Blackhole blackhole) throws IOException {
+    for (int nread = in.read(buf); nread != -1; nread = in.read(buf))
+      blackhole.consume(nread);
+  }
+}
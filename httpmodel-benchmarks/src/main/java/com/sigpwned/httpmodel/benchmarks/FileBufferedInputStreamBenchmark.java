@@ -0,0 +1,103 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-benchmarks
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2026 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import com.sigpwned.httpmodel.core.io.BufferedInputStream;
+import com.sigpwned.httpmodel.core.io.buffered.FileBufferedInputStream;
+import com.sigpwned.httpmodel.core.io.buffered.MappedFileBufferedInputStream;
+
+/**
+ * Compares replaying a file-buffered entity with {@link FileBufferedInputStream}, which reopens the
+ * file on every restart, against {@link MappedFileBufferedInputStream}, which maps it once. Each
+ * operation restarts the stream and reads it to the end, like signing or hashing does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileBufferedInputStreamBenchmark {
+  @Param({"1048576", "67108864", "1073741824"})
+  public long size;
+
+  private File file;
+
+  private BufferedInputStream fileStream;
+
+  private BufferedInputStream mappedStream;
+
+  private final byte[] buf = new byte[8192];
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    file = File.createTempFile("benchmark.", ".bin");
+    byte[] chunk = new byte[1024 * 1024];
+    try (OutputStream out = new FileOutputStream(file)) {
+      for (long written = 0L; written < size; written = written + chunk.length)
+        out.write(chunk, 0, (int) Math.min(chunk.length, size - written));
+    }
+    fileStream = new FileBufferedInputStream(file, false);
+    mappedStream = new MappedFileBufferedInputStream(file, false);
+  }
+
+  @TearDown(Level.Trial)
+  public void teardown() throws IOException {
+    fileStream.close();
+    mappedStream.close();
+    file.delete();
+  }
+
+  @Benchmark
+  public long fileRestartAndRead() throws IOException {
+    return restartAndRead(fileStream);
+  }
+
+  @Benchmark
+  public long mappedRestartAndRead() throws IOException {
+    return restartAndRead(mappedStream);
+  }
+
+  private long restartAndRead(BufferedInputStream in) throws IOException {
+    in.restart();
+    long total = 0L;
+    for (int nread = in.read(buf); nread != -1; nread = in.read(buf))
+      total = total + nread;
+    return total;
+  }
+}
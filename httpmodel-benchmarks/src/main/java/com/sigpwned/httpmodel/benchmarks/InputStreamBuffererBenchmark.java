@@ -0,0 +1,77 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-benchmarks
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2026 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.sigpwned.httpmodel.core.io.BufferedInputStream;
+import com.sigpwned.httpmodel.core.io.InputStreamBufferer;
+import com.sigpwned.httpmodel.core.io.buffered.MemoryBufferedInputStream;
+import com.sigpwned.httpmodel.core.util.MoreByteStreams;
+
+/**
+ * Compares {@link InputStreamBufferer#newDefaultInstance()} against the implementation it replaced,
+ * which allocated a buffer of the maximum size for every entity and kept it. Run with
+ * {@code -prof gc} to see the difference in allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputStreamBuffererBenchmark {
+  @Param({"200", "4000", "40000"})
+  public int entitySize;
+
+  private byte[] entity;
+
+  private InputStreamBufferer pooled;
+
+  @Setup
+  public void setup() {
+    entity = new byte[entitySize];
+    pooled = InputStreamBufferer.newDefaultInstance();
+  }
+
+  @Benchmark
+  public BufferedInputStream legacyBuffer() throws IOException {
+    byte[] buf = new byte[InputStreamBufferer.DEFAULT_MAX_BUFFER_SIZE];
+    int nread = MoreByteStreams.read(new ByteArrayInputStream(entity), buf);
+    return new MemoryBufferedInputStream(buf, 0, nread);
+  }
+
+  @Benchmark
+  public BufferedInputStream pooledBuffer() throws IOException {
+    return pooled.buffer(new ByteArrayInputStream(entity));
+  }
+}
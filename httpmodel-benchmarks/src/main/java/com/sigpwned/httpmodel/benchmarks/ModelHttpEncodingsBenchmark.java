@@ -0,0 +1,80 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-benchmarks
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2026 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.sigpwned.httpmodel.core.util.ModelHttpEncodings;
+
+/**
+ * Compares {@link ModelHttpEncodings#urlencode(String)} against the byte-array implementation it
+ * used before it had lookup tables and a no-escape fast path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelHttpEncodingsBenchmark {
+  @Param({"session_id-0123456789", "hello, world! 100% done"})
+  public String value;
+
+  private final StringBuilder out = new StringBuilder();
+
+  @Benchmark
+  public String legacyUrlencode() {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+    for (byte b : bytes) {
+      if ((b >= '0' && b <= '9') || (b >= 'A' && b <= 'Z') || (b >= 'a' && b <= 'z') || b == '-'
+          || b == '.' || b == '_' || b == '~') {
+        result.write(b);
+      } else {
+        result.write('%');
+        result.write(Character.toUpperCase(Character.forDigit((b >> 4) & 0x0F, 16)));
+        result.write(Character.toUpperCase(Character.forDigit(b & 0x0F, 16)));
+      }
+    }
+    return new String(result.toByteArray(), StandardCharsets.US_ASCII);
+  }
+
+  @Benchmark
+  public String urlencode() {
+    return ModelHttpEncodings.urlencode(value);
+  }
+
+  @Benchmark
+  public StringBuilder urlencodeAppend() {
+    out.setLength(0);
+    return ModelHttpEncodings.urlencode(value, out);
+  }
+}
@@ -0,0 +1,168 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-benchmarks
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2026 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.benchmarks;
+
+import static java.util.stream.Collectors.toList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.sigpwned.httpmodel.core.model.ModelHttpHeaders;
+import com.sigpwned.httpmodel.core.model.ModelHttpHeaders.Header;
+import com.sigpwned.httpmodel.core.util.ModelHttpHeaderNames;
+
+/**
+ * Compares name lookups and mutations on {@link ModelHttpHeaders} against the linear scans over
+ * the header list that {@link ModelHttpHeaders} used before it kept a name index. The mutations
+ * each remove or replace a header chosen in rotation and add it back last, so the message keeps
+ * its size from one invocation to the next.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelHttpHeadersBenchmark {
+  @Param({"10", "50", "200"})
+  public int headerCount;
+
+  private ModelHttpHeaders headers;
+
+  private List<Header> list;
+
+  private String[] names;
+
+  private int next;
+
+  @Setup
+  public void setup() {
+    headers = new ModelHttpHeaders();
+    names = new String[headerCount - 1];
+    for (int i = 0; i < headerCount - 1; i++) {
+      names[i] = "x-custom-header-" + i;
+      headers.addHeaderLast(names[i], "value-" + i);
+    }
+
+    // Put the header we look for at the end, like a late-added tracing or content-type header
+    headers.addHeaderLast(ModelHttpHeaderNames.CONTENT_TYPE, "application/json");
+
+    list = new ArrayList<>(headers.getHeaders());
+    next = 0;
+  }
+
+  private String nextName() {
+    String result = names[next];
+    next = next + 1 == names.length ? 0 : next + 1;
+    return result;
+  }
+
+  @Benchmark
+  public Optional<Header> listScanFindFirst() {
+    return headers.getHeaders().stream()
+        .filter(h -> h.getName().equalsIgnoreCase(ModelHttpHeaderNames.CONTENT_TYPE)).findFirst();
+  }
+
+  @Benchmark
+  public Optional<Header> indexedFindFirst() {
+    return headers.findFirstHeaderByName(ModelHttpHeaderNames.CONTENT_TYPE);
+  }
+
+  @Benchmark
+  public List<String> listScanFindAllValues() {
+    return headers.getHeaders().stream()
+        .filter(h -> h.getName().equalsIgnoreCase(ModelHttpHeaderNames.CONTENT_TYPE))
+        .map(Header::getValue).collect(toList());
+  }
+
+  @Benchmark
+  public List<String> indexedFindAllValues() {
+    return headers.findAllHeaderValuesByName(ModelHttpHeaderNames.CONTENT_TYPE);
+  }
+
+  @Benchmark
+  public Optional<Header> listScanFindMissing() {
+    return headers.getHeaders().stream()
+        .filter(h -> h.getName().equalsIgnoreCase(ModelHttpHeaderNames.AUTHORIZATION))
+        .findFirst();
+  }
+
+  @Benchmark
+  public Optional<Header> indexedFindMissing() {
+    return headers.findFirstHeaderByName(ModelHttpHeaderNames.AUTHORIZATION);
+  }
+
+  @Benchmark
+  public List<Header> listScanRemoveFirst() {
+    String name = nextName();
+    Iterator<Header> iterator = list.iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next().getName().equalsIgnoreCase(name)) {
+        iterator.remove();
+        break;
+      }
+    }
+    list.add(Header.of(name, "value"));
+    return list;
+  }
+
+  @Benchmark
+  public ModelHttpHeaders indexedRemoveFirst() {
+    String name = nextName();
+    return headers.removeFirstHeader(name).addHeaderLast(name, "value");
+  }
+
+  @Benchmark
+  public List<Header> listScanRemoveAll() {
+    String name = nextName();
+    list.removeIf(h -> h.getName().equalsIgnoreCase(name));
+    list.add(Header.of(name, "value"));
+    return list;
+  }
+
+  @Benchmark
+  public ModelHttpHeaders indexedRemoveAll() {
+    String name = nextName();
+    return headers.removeAllHeaders(name).addHeaderLast(name, "value");
+  }
+
+  @Benchmark
+  public List<Header> listScanSetOnly() {
+    // The list-based setOnlyHeader was a removeAllHeaders followed by an addHeaderLast
+    return listScanRemoveAll();
+  }
+
+  @Benchmark
+  public ModelHttpHeaders indexedSetOnly() {
+    return headers.setOnlyHeader(nextName(), "value");
+  }
+}
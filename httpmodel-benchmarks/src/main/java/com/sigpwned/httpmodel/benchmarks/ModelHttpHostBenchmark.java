@@ -0,0 +1,134 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-benchmarks
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2026 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.benchmarks;
+
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.sigpwned.httpmodel.core.model.ModelHttpHost;
+import com.sigpwned.httpmodel.core.model.host.ModelHttpHostnameHost;
+import com.sigpwned.httpmodel.core.model.host.ModelHttpIpV4Host;
+import com.sigpwned.httpmodel.core.model.host.ModelHttpIpV6Host;
+import com.sigpwned.httpmodel.core.org.apache.commons.validator.routines.InetAddressValidator;
+
+/**
+ * Compares {@link ModelHttpHost#fromString(String)} against the approach it used before, which
+ * tried IPv6, IPv4, and hostname in turn using exceptions for control flow, validated addresses with
+ * {@link InetAddressValidator}, and then parsed them with {@link InetAddress#getByName(String)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelHttpHostBenchmark {
+  @Param({"www.example.com", "192.168.10.20", "[2001:db8:85a3::8a2e:370:7334]"})
+  public String host;
+
+  @Benchmark
+  public ModelHttpHost legacyFromString() {
+    return legacyFromString(host);
+  }
+
+  @Benchmark
+  public ModelHttpHost singlePassFromString() {
+    return ModelHttpHost.fromString(host);
+  }
+
+  private static ModelHttpHost legacyFromString(String s) {
+    ModelHttpHost result = null;
+
+    if (result == null) {
+      try {
+        result = legacyIpV6FromString(s);
+      } catch (IllegalArgumentException e) {
+        // This is fine. It's just not an IPv6 address.
+      }
+    }
+
+    if (result == null) {
+      try {
+        result = legacyIpV4FromString(s);
+      } catch (IllegalArgumentException e) {
+        // This is fine. It's just not an IPv4 address.
+      }
+    }
+
+    if (result == null) {
+      try {
+        if (!ModelHttpHostnameHost.HOSTNAME.matcher(s).matches())
+          throw new IllegalArgumentException("hostname must be a valid DNS hostname");
+        result = ModelHttpHostnameHost.of(s);
+      } catch (IllegalArgumentException e) {
+        // This is fine. It's just not a hostname address.
+      }
+    }
+
+    if (result == null)
+      throw new IllegalArgumentException("must be a valid hostname, IPv4 host, or IPv6 host");
+
+    return result;
+  }
+
+  private static ModelHttpIpV4Host legacyIpV4FromString(String s) {
+    if (!InetAddressValidator.getInstance().isValidInet4Address(s))
+      throw new IllegalArgumentException("must be a valid IPv4 address of the form a.b.c.d");
+
+    Inet4Address address;
+    try {
+      address = (Inet4Address) InetAddress.getByName(s);
+    } catch (Exception e) {
+      throw new IllegalArgumentException("not a valid IPv4 address", e);
+    }
+
+    return ModelHttpIpV4Host.of(address);
+  }
+
+  private static ModelHttpIpV6Host legacyIpV6FromString(String s) {
+    if (!s.startsWith("[") || !s.endsWith("]"))
+      throw new IllegalArgumentException("must be a valid IPv6 address surrounded by [ ]");
+
+    s = s.substring(1, s.length() - 1);
+
+    if (!InetAddressValidator.getInstance().isValidInet6Address(s))
+      throw new IllegalArgumentException("must contain a valid IPv6 address");
+
+    Inet6Address address;
+    try {
+      address = (Inet6Address) InetAddress.getByName(s);
+    } catch (Exception e) {
+      throw new IllegalArgumentException("not a valid IPv6 address", e);
+    }
+
+    return ModelHttpIpV6Host.of(address);
+  }
+}
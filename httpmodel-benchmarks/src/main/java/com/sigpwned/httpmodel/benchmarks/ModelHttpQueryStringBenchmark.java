@@ -0,0 +1,83 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-benchmarks
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2026 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.benchmarks;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.sigpwned.httpmodel.core.model.ModelHttpQueryString;
+import com.sigpwned.httpmodel.core.model.ModelHttpQueryString.Parameter;
+
+/**
+ * Compares name lookups on {@link ModelHttpQueryString} against the linear scan over the parameter
+ * list that {@link ModelHttpQueryString} used before it kept a name index.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelHttpQueryStringBenchmark {
+  @Param({"10", "100", "500"})
+  public int parameterCount;
+
+  private ModelHttpQueryString queryString;
+
+  @Setup
+  public void setup() {
+    queryString = new ModelHttpQueryString();
+    for (int i = 0; i < parameterCount - 1; i++)
+      queryString.addParameterLast("filter" + i, "value" + i);
+
+    // Put the parameter we look for at the end, like a late-added paging parameter
+    queryString.addParameterLast("page", "2");
+  }
+
+  @Benchmark
+  public Optional<Parameter> listScanFindFirst() {
+    return queryString.stream().filter(p -> p.getName().equals("page")).findFirst();
+  }
+
+  @Benchmark
+  public Optional<Parameter> indexedFindFirst() {
+    return queryString.findFirstParameterByName("page");
+  }
+
+  @Benchmark
+  public Optional<Parameter> listScanFindMissing() {
+    return queryString.stream().filter(p -> p.getName().equals("sort")).findFirst();
+  }
+
+  @Benchmark
+  public Optional<Parameter> indexedFindMissing() {
+    return queryString.findFirstParameterByName("sort");
+  }
+}
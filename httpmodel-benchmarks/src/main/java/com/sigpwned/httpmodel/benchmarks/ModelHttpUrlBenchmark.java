@@ -0,0 +1,109 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-benchmarks
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2026 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.benchmarks;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.sigpwned.httpmodel.core.model.ModelHttpUrl;
+
+/**
+ * Compares the hand-written {@link ModelHttpUrl} parser and serializer against the approach they
+ * used before, which parsed with {@link URL} and serialized by string concatenation. The
+ * conversions to {@link URI} and {@link URL} are compared against parsing the concatenated string
+ * on every call, as before.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelHttpUrlBenchmark {
+  @Param({"https://www.example.com/", "https://api.example.com:8443/v1/users/12345?fields=id,name",
+      "http://10.0.0.1:8080/a/b/c?alpha=bravo&charlie=delta&echo=foxtrot"})
+  public String url;
+
+  private ModelHttpUrl parsed;
+
+  @Setup
+  public void setup() {
+    parsed = ModelHttpUrl.fromString(url);
+  }
+
+  @Benchmark
+  public ModelHttpUrl legacyFromString() throws MalformedURLException {
+    return ModelHttpUrl.fromUrl(new URL(url));
+  }
+
+  @Benchmark
+  public ModelHttpUrl handWrittenFromString() {
+    return ModelHttpUrl.fromString(url);
+  }
+
+  @Benchmark
+  public String legacyToString() {
+    String authority = parsed.getAuthority().getHost().toString();
+    if (parsed.getAuthority().getPort() != null)
+      authority = authority + ":" + parsed.getAuthority().getPort();
+    String result = parsed.getScheme() + "://" + authority + parsed.getPath();
+    if (parsed.getQueryString() != null) {
+      result = result + "?" + parsed.getQueryString();
+    }
+    return result;
+  }
+
+  @Benchmark
+  public String handWrittenToString() {
+    return parsed.toString();
+  }
+
+  @Benchmark
+  public URI legacyToUri() {
+    return URI.create(legacyToString());
+  }
+
+  @Benchmark
+  public URI handWrittenToUri() {
+    return parsed.toUri();
+  }
+
+  @Benchmark
+  public URL legacyToUrl() throws MalformedURLException {
+    return URI.create(legacyToString()).toURL();
+  }
+
+  @Benchmark
+  public URL handWrittenToUrl() {
+    return parsed.toUrl();
+  }
+}
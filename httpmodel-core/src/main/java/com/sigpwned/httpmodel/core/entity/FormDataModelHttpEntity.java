@@ -21,10 +21,11 @@ package com.sigpwned.httpmodel.core.entity;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.unmodifiableList;
-import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
@@ -49,8 +50,6 @@ public class FormDataModelHttpEntity implements ModelHttpEntity, Iterable<Entry>
 
   private static final Pattern AMPERSAND = Pattern.compile("&");
 
-  private static final Pattern EQUALS = Pattern.compile("=");
-
   /**
    * Models a single form entry, e.g., alpha=bravo
    */
@@ -65,9 +64,9 @@ public class FormDataModelHttpEntity implements ModelHttpEntity, Iterable<Entry>
      * @see #toString()
      */
     public static Entry fromString(String nv) {
-      String[] parts = EQUALS.split(nv, 2);
-      String n = ModelHttpEncodings.urldecode(parts[0]);
-      String v = parts.length == 2 ? ModelHttpEncodings.urldecode(parts[1]) : "";
+      int equals = nv.indexOf('=');
+      String n = ModelHttpEncodings.urldecode(equals == -1 ? nv : nv.substring(0, equals));
+      String v = equals == -1 ? "" : ModelHttpEncodings.urldecode(nv.substring(equals + 1));
       return Entry.of(n, v);
     }
 
@@ -125,21 +124,47 @@ public class FormDataModelHttpEntity implements ModelHttpEntity, Iterable<Entry>
      */
     @Override
     public String toString() {
-      String result = ModelHttpEncodings.urlencode(getName());
+      if (!getValue().isPresent())
+        return ModelHttpEncodings.urlencode(getName());
+      return appendTo(new StringBuilder()).toString();
+    }
+
+    private StringBuilder appendTo(StringBuilder out) {
+      ModelHttpEncodings.urlencode(getName(), out);
       if (getValue().isPresent())
-        result = result + "=" + ModelHttpEncodings.urlencode(getValue().get());
-      return result;
+        ModelHttpEncodings.urlencode(getValue().get(), out.append('='));
+      return out;
     }
   }
 
   /**
-   * Convenience method that converts the given entity to a string and then parses
+   * Convenience method that parses the given entity incrementally, without limits on the number or
+   * size of entries
    *
-   * @see #fromString(String)
+   * @throws IOException if the entity throws an exception
+   * @throws IllegalArgumentException if the form content is not valid
+   *
+   * @see FormDataParser#UNLIMITED
    */
   public static FormDataModelHttpEntity fromEntity(ModelHttpEntityInputStream entity)
       throws IOException {
-    return fromString(entity.toString(StandardCharsets.UTF_8));
+    return fromEntity(entity, FormDataParser.UNLIMITED);
+  }
+
+  /**
+   * Convenience method that parses the given entity incrementally with the given parser, e.g., to
+   * enforce limits on untrusted input
+   *
+   * @throws IOException if the entity throws an exception or exceeds the limits of the parser
+   * @throws IllegalArgumentException if the form content is not valid
+   *
+   * @see FormDataParser
+   */
+  public static FormDataModelHttpEntity fromEntity(ModelHttpEntityInputStream entity,
+      FormDataParser parser) throws IOException {
+    if (parser == null)
+      throw new NullPointerException();
+    return of(parser.parse(entity));
   }
 
   /**
@@ -163,12 +188,20 @@ public class FormDataModelHttpEntity implements ModelHttpEntity, Iterable<Entry>
     return new FormDataModelHttpEntity(entries);
   }
 
+  private static final int WRITE_CHUNK_SIZE = 8192;
+
   private final List<Entry> entries;
 
+  /**
+   * The encoded form, or {@code null} if it has not been computed yet
+   */
+  private volatile byte[] bytes;
+
   public FormDataModelHttpEntity(List<Entry> entries) {
     if (entries == null)
       throw new NullPointerException();
-    this.entries = unmodifiableList(entries);
+    // Copy, since the encoded form is cached and must not change underneath us
+    this.entries = unmodifiableList(new ArrayList<>(entries));
   }
 
   /**
@@ -208,9 +241,46 @@ public class FormDataModelHttpEntity implements ModelHttpEntity, Iterable<Entry>
     return CONTENT_TYPE;
   }
 
+  /**
+   * Returns a stream over the encoded form. The form is only encoded once, and every stream shares
+   * the encoded bytes.
+   */
   @Override
   public BufferedInputStream toInputStream() {
-    return new MemoryBufferedInputStream(toString(), StandardCharsets.UTF_8);
+    byte[] result = bytes;
+    if (result == null)
+      bytes = result = toString().getBytes(StandardCharsets.US_ASCII);
+    return new MemoryBufferedInputStream(result);
+  }
+
+  /**
+   * Writes the encoded form to the given stream. If the form has not been encoded already, then
+   * encodes it a chunk at a time, so the whole form never exists as an intermediate string.
+   */
+  @Override
+  public void writeTo(OutputStream out) throws IOException {
+    byte[] result = bytes;
+    if (result != null) {
+      out.write(result);
+      return;
+    }
+
+    StringBuilder chunk = new StringBuilder(WRITE_CHUNK_SIZE + 256);
+    byte[] buf = new byte[WRITE_CHUNK_SIZE + 256];
+    for (int i = 0; i < entries.size(); i++) {
+      if (i != 0)
+        chunk.append('&');
+      entries.get(i).appendTo(chunk);
+      if (chunk.length() >= WRITE_CHUNK_SIZE || i == entries.size() - 1) {
+        if (buf.length < chunk.length())
+          buf = new byte[chunk.length()];
+        // The encoded form is pure ASCII
+        for (int j = 0; j < chunk.length(); j++)
+          buf[j] = (byte) chunk.charAt(j);
+        out.write(buf, 0, chunk.length());
+        chunk.setLength(0);
+      }
+    }
   }
 
   /**
@@ -220,7 +290,13 @@ public class FormDataModelHttpEntity implements ModelHttpEntity, Iterable<Entry>
    */
   @Override
   public String toString() {
-    return stream().map(Entry::toString).collect(joining("&"));
+    StringBuilder result = new StringBuilder(16 * entries.size());
+    for (int i = 0; i < entries.size(); i++) {
+      if (i != 0)
+        result.append('&');
+      entries.get(i).appendTo(result);
+    }
+    return result.toString();
   }
 
   @Override
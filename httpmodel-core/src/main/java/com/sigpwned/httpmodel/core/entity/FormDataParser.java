@@ -0,0 +1,214 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.core.entity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import com.sigpwned.httpmodel.core.entity.FormDataModelHttpEntity.Entry;
+
+/**
+ * Parses application/x-www-form-urlencoded content incrementally, e.g.,
+ * alpha=bravo&amp;charlie=delta. Each entry is handed to the caller as soon as it is complete, so
+ * the parser only ever holds one entry in memory. Limits on the number of entries and the size of
+ * each entry protect against hostile input. Content is decoded as UTF-8.
+ *
+ * @see FormDataModelHttpEntity#fromString(String)
+ */
+public class FormDataParser {
+  public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+  public static final int DEFAULT_MAX_ENTRY_SIZE = 64 * 1024;
+
+  /**
+   * A parser with no practical limits on the number or size of entries, for trusted input
+   */
+  public static final FormDataParser UNLIMITED =
+      new FormDataParser(Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+  private static final int CHUNK_SIZE = 8192;
+
+  /**
+   * Receives entries from the parser, in order
+   */
+  @FunctionalInterface
+  public static interface EntryHandler {
+    public void entry(Entry entry) throws IOException;
+  }
+
+  /**
+   * Reads the next chunk of form content into the parser's chunk buffer from either an
+   * {@link InputStream} or a {@link ReadableByteChannel}. Returns -1 at end of input.
+   */
+  @FunctionalInterface
+  private static interface ChunkSource {
+    public int read() throws IOException;
+  }
+
+  private final int maxEntries;
+
+  private final int maxEntrySize;
+
+  /**
+   * Equivalent to {@code new FormDataParser(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_ENTRY_SIZE)}.
+   */
+  public FormDataParser() {
+    this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_ENTRY_SIZE);
+  }
+
+  /**
+   * @param maxEntries the most entries to accept
+   * @param maxEntrySize the most bytes to accept in a single encoded entry, e.g., alpha=bravo
+   */
+  public FormDataParser(int maxEntries, int maxEntrySize) {
+    if (maxEntries < 0)
+      throw new IllegalArgumentException("maxEntries must not be negative");
+    if (maxEntrySize <= 0)
+      throw new IllegalArgumentException("maxEntrySize must be positive");
+    this.maxEntries = maxEntries;
+    this.maxEntrySize = maxEntrySize;
+  }
+
+  /**
+   * @return the maxEntries
+   */
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  /**
+   * @return the maxEntrySize
+   */
+  public int getMaxEntrySize() {
+    return maxEntrySize;
+  }
+
+  /**
+   * Reads the given stream to the end and returns its entries. Does not close the stream.
+   *
+   * @throws IOException if the stream throws an exception or the content exceeds the limits of
+   *         this parser
+   * @throws IllegalArgumentException if the content is not valid
+   */
+  public List<Entry> parse(InputStream in) throws IOException {
+    List<Entry> result = new ArrayList<>();
+    parse(in, result::add);
+    return result;
+  }
+
+  /**
+   * Reads the given stream to the end and passes each entry to the given handler as soon as it is
+   * parsed. Does not close the stream.
+   *
+   * @throws IOException if the stream or handler throws an exception or the content exceeds the
+   *         limits of this parser
+   * @throws IllegalArgumentException if the content is not valid
+   */
+  public void parse(InputStream in, EntryHandler handler) throws IOException {
+    if (in == null)
+      throw new NullPointerException();
+    if (handler == null)
+      throw new NullPointerException();
+    byte[] chunk = new byte[CHUNK_SIZE];
+    parse(chunk, () -> in.read(chunk), handler);
+  }
+
+  /**
+   * Reads the given channel to the end and passes each entry to the given handler as soon as it is
+   * parsed. The channel should be in blocking mode. Does not close the channel.
+   *
+   * @throws IOException if the channel or handler throws an exception or the content exceeds the
+   *         limits of this parser
+   * @throws IllegalArgumentException if the content is not valid
+   */
+  public void parse(ReadableByteChannel in, EntryHandler handler) throws IOException {
+    if (in == null)
+      throw new NullPointerException();
+    if (handler == null)
+      throw new NullPointerException();
+    byte[] chunk = new byte[CHUNK_SIZE];
+    ByteBuffer buf = ByteBuffer.wrap(chunk);
+    parse(chunk, () -> {
+      buf.clear();
+      return in.read(buf);
+    }, handler);
+  }
+
+  private void parse(byte[] chunk, ChunkSource source, EntryHandler handler) throws IOException {
+    byte[] entry = new byte[Math.min(256, maxEntrySize)];
+    int entrySize = 0;
+    int entryCount = 0;
+    for (int nread = source.read(); nread != -1; nread = source.read()) {
+      int start = 0;
+      for (int i = 0; i < nread; i++) {
+        if (chunk[i] != '&')
+          continue;
+        entry = append(entry, entrySize, chunk, start, i - start);
+        entrySize = entrySize + (i - start);
+        entryCount = emit(entry, entrySize, entryCount, handler);
+        entrySize = 0;
+        start = i + 1;
+      }
+      entry = append(entry, entrySize, chunk, start, nread - start);
+      entrySize = entrySize + (nread - start);
+    }
+    emit(entry, entrySize, entryCount, handler);
+  }
+
+  /**
+   * Appends the given bytes to the given entry, growing it if necessary, and returns the entry
+   *
+   * @throws IOException if the entry would exceed {@link #getMaxEntrySize()}
+   */
+  private byte[] append(byte[] entry, int entrySize, byte[] chunk, int off, int len)
+      throws IOException {
+    if (len == 0)
+      return entry;
+    if ((long) entrySize + len > maxEntrySize)
+      throw new IOException("form entry exceeds " + maxEntrySize + " bytes");
+    if (entrySize + len > entry.length)
+      entry = Arrays.copyOf(entry,
+          (int) Math.min(Math.max(2L * entry.length, entrySize + len), maxEntrySize));
+    System.arraycopy(chunk, off, entry, entrySize, len);
+    return entry;
+  }
+
+  /**
+   * Parses the given entry and passes it to the handler, unless it is empty. Returns the new count
+   * of entries.
+   *
+   * @throws IOException if the entry would exceed {@link #getMaxEntries()}
+   */
+  private int emit(byte[] entry, int entrySize, int entryCount, EntryHandler handler)
+      throws IOException {
+    if (entrySize == 0)
+      return entryCount;
+    if (entryCount == maxEntries)
+      throw new IOException("form exceeds " + maxEntries + " entries");
+    // UTF-8 never uses the byte '&' in a multi-byte sequence, so each entry is complete text
+    handler.entry(Entry.fromString(new String(entry, 0, entrySize, StandardCharsets.UTF_8)));
+    return entryCount + 1;
+  }
+}
@@ -20,6 +20,7 @@
 package com.sigpwned.httpmodel.core.entity;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 import com.sigpwned.httpmodel.core.io.BufferedInputStream;
@@ -60,6 +61,11 @@ public class PlainTextModelHttpEntity implements ModelHttpEntity {
 
   private final String text;
 
+  /**
+   * The UTF-8 encoding of {@link #text}, or {@code null} if it has not been computed yet
+   */
+  private volatile byte[] bytes;
+
   public PlainTextModelHttpEntity(String text) {
     if (text == null)
       throw new NullPointerException();
@@ -92,9 +98,25 @@ public class PlainTextModelHttpEntity implements ModelHttpEntity {
     return CONTENT_TYPE;
   }
 
+  /**
+   * Returns a stream over the UTF-8 encoding of this entity's text. The text is only encoded once,
+   * and every stream shares the encoded bytes.
+   */
   @Override
   public BufferedInputStream toInputStream() {
-    return new MemoryBufferedInputStream(toString(), StandardCharsets.UTF_8);
+    return new MemoryBufferedInputStream(bytes());
+  }
+
+  @Override
+  public void writeTo(OutputStream out) throws IOException {
+    out.write(bytes());
+  }
+
+  private byte[] bytes() {
+    byte[] result = bytes;
+    if (result == null)
+      bytes = result = text.getBytes(StandardCharsets.UTF_8);
+    return result;
   }
 
   /**
@@ -0,0 +1,126 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2023 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.core.io;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Enforces a shared cap on the number of bytes that buffered entities hold in memory at once. The
+ * in-memory and direct-memory {@link InputStreamBufferer} implementations reserve memory from a
+ * manager before they keep an entity in memory, and the resulting buffered stream releases it on
+ * close. When a reservation fails, the bufferer spills the entity to disk instead.
+ *
+ * <p>
+ * Scratch buffers used only while reading, e.g., from a {@link ByteArrayPool}, are not counted.
+ * </p>
+ */
+public class BufferManager {
+  public static final long DEFAULT_MAX_MEMORY = 256L * 1024L * 1024L;
+
+  /**
+   * The manager shared by the built-in {@link InputStreamBufferingStrategy} instances
+   */
+  public static final BufferManager DEFAULT = new BufferManager(DEFAULT_MAX_MEMORY);
+
+  private final long maxMemory;
+
+  private final AtomicLong usage;
+
+  private final AtomicLong highWaterMark;
+
+  private final LongAdder spills;
+
+  /**
+   * @param maxMemory the most bytes buffered entities may hold in memory at once
+   */
+  public BufferManager(long maxMemory) {
+    if (maxMemory < 0L)
+      throw new IllegalArgumentException("maxMemory must not be negative");
+    this.maxMemory = maxMemory;
+    this.usage = new AtomicLong(0L);
+    this.highWaterMark = new AtomicLong(0L);
+    this.spills = new LongAdder();
+  }
+
+  /**
+   * Reserves the given number of bytes, if that would not exceed {@link #getMaxMemory()}. The
+   * caller must {@link #release(long) release} the bytes when done with them.
+   *
+   * @return {@code true} if the bytes were reserved, or {@code false} otherwise
+   */
+  public boolean tryReserve(long bytes) {
+    if (bytes < 0L)
+      throw new IllegalArgumentException("bytes must not be negative");
+    long current, updated;
+    do {
+      current = usage.get();
+      updated = current + bytes;
+      if (updated > maxMemory)
+        return false;
+    } while (!usage.compareAndSet(current, updated));
+    highWaterMark.accumulateAndGet(updated, Math::max);
+    return true;
+  }
+
+  /**
+   * Releases bytes reserved by {@link #tryReserve(long)}
+   */
+  public void release(long bytes) {
+    if (bytes < 0L)
+      throw new IllegalArgumentException("bytes must not be negative");
+    usage.addAndGet(-bytes);
+  }
+
+  /**
+   * Records that a bufferer spilled an entity to disk because it could not reserve memory
+   */
+  public void recordSpill() {
+    spills.increment();
+  }
+
+  /**
+   * @return the maxMemory
+   */
+  public long getMaxMemory() {
+    return maxMemory;
+  }
+
+  /**
+   * @return the number of bytes currently reserved
+   */
+  public long getUsage() {
+    return usage.get();
+  }
+
+  /**
+   * @return the most bytes ever reserved at once
+   */
+  public long getHighWaterMark() {
+    return highWaterMark.get();
+  }
+
+  /**
+   * @return the number of entities spilled to disk because memory could not be reserved
+   */
+  public long getSpillCount() {
+    return spills.sum();
+  }
+}
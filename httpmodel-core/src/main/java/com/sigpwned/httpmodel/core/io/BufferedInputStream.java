@@ -23,9 +23,26 @@ import java.io.FileNotFoundException;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.OptionalLong;
+import com.sigpwned.httpmodel.core.util.MoreByteStreams;
+
+/**
+ * An {@link InputStream} over a complete copy of some content that can be re-read from the start
+ * any number of times. Also a {@link ReadableByteChannel}, so NIO consumers can read it without
+ * wrapping it in {@link Channels#newChannel(InputStream)}.
+ */
+public abstract class BufferedInputStream extends FilterInputStream
+    implements ReadableByteChannel {
+  /**
+   * If {@code true}, then this stream has been closed and not restarted since
+   */
+  private boolean closed;
 
-public abstract class BufferedInputStream extends FilterInputStream {
   public BufferedInputStream() {
     super(null);
   }
@@ -42,6 +59,63 @@ public abstract class BufferedInputStream extends FilterInputStream {
       throw new NullPointerException();
     in.close();
     in = newInputStream;
+    closed = false;
+  }
+
+  /**
+   * Reads bytes from this stream into the given buffer, per {@link ReadableByteChannel}. The default
+   * implementation reads heap buffers directly and fills direct buffers through a pooled array.
+   * Subclasses should override this method if they can fill buffers more directly.
+   *
+   * @return the number of bytes read, possibly zero, or -1 if this stream is at its end
+   */
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    if (dst == null)
+      throw new NullPointerException();
+    return MoreByteStreams.readSome(this, dst);
+  }
+
+  /**
+   * @return {@code true} if this stream has not been closed since it was created or last restarted
+   */
+  @Override
+  public boolean isOpen() {
+    return !closed;
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    super.close();
+  }
+
+  /**
+   * Writes the rest of this stream to the given stream. Does not close either stream. The default
+   * implementation copies through a pooled buffer. Subclasses should override this method if they
+   * can write their contents more directly.
+   *
+   * @return the number of bytes written
+   * @see #transferTo(WritableByteChannel)
+   */
+  public long transferTo(OutputStream out) throws IOException {
+    if (out == null)
+      throw new NullPointerException();
+    return MoreByteStreams.transfer(this, out);
+  }
+
+  /**
+   * Writes the rest of this stream to the given channel, which should be in blocking mode. Does not
+   * close this stream or the channel. The default implementation copies through a pooled buffer.
+   * Subclasses should override this method if they can write their contents more directly.
+   *
+   * @return the number of bytes written
+   * @see Channels#newChannel(OutputStream)
+   */
+  public long transferTo(WritableByteChannel out) throws IOException {
+    if (out == null)
+      throw new NullPointerException();
+    return MoreByteStreams.transfer(this, out);
   }
 
   /**
@@ -0,0 +1,127 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2023 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.core.io;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, thread-safe pool of fixed-size direct {@link ByteBuffer} segments. Direct buffers live
+ * outside the Java heap and are expensive to allocate, so they are worth reusing. When the pool is
+ * empty, {@link #acquire()} allocates a new buffer. When the pool is full,
+ * {@link #release(ByteBuffer)} drops the given buffer for the garbage collector. Either way,
+ * callers never block.
+ *
+ * @see ByteArrayPool
+ */
+public class ByteBufferPool {
+  public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+  public static final int DEFAULT_MAX_POOLED = 256;
+
+  /**
+   * The pool used by {@link InputStreamBufferer#newDirectInstance()}
+   */
+  public static final ByteBufferPool DEFAULT =
+      new ByteBufferPool(DEFAULT_CHUNK_SIZE, DEFAULT_MAX_POOLED);
+
+  private final int chunkSize;
+
+  private final BlockingQueue<ByteBuffer> pooled;
+
+  private final LongAdder hits;
+
+  private final LongAdder misses;
+
+  /**
+   * @param chunkSize the capacity of the buffers in the pool
+   * @param maxPooled the most buffers to keep in the pool at once
+   */
+  public ByteBufferPool(int chunkSize, int maxPooled) {
+    if (chunkSize <= 0)
+      throw new IllegalArgumentException("chunkSize must be positive");
+    if (maxPooled <= 0)
+      throw new IllegalArgumentException("maxPooled must be positive");
+    this.chunkSize = chunkSize;
+    this.pooled = new ArrayBlockingQueue<>(maxPooled);
+    this.hits = new LongAdder();
+    this.misses = new LongAdder();
+  }
+
+  /**
+   * Returns a cleared direct buffer of capacity {@link #getChunkSize()} with arbitrary contents.
+   * The caller should pass it to {@link #release(ByteBuffer)} when done.
+   */
+  public ByteBuffer acquire() {
+    ByteBuffer result = pooled.poll();
+    if (result != null) {
+      hits.increment();
+      ((Buffer) result).clear();
+    } else {
+      misses.increment();
+      result = ByteBuffer.allocateDirect(chunkSize);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the given buffer to the pool. The caller must not use it afterwards.
+   *
+   * @throws IllegalArgumentException if the buffer did not come from this pool
+   */
+  public void release(ByteBuffer chunk) {
+    if (chunk == null)
+      throw new NullPointerException();
+    if (!chunk.isDirect() || chunk.capacity() != chunkSize)
+      throw new IllegalArgumentException("chunk has wrong capacity");
+    pooled.offer(chunk);
+  }
+
+  /**
+   * @return the chunkSize
+   */
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  /**
+   * @return the number of buffers currently available in the pool
+   */
+  public int getPooledCount() {
+    return pooled.size();
+  }
+
+  /**
+   * @return the number of calls to {@link #acquire()} satisfied from the pool
+   */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * @return the number of calls to {@link #acquire()} that had to allocate a new buffer
+   */
+  public long getMissCount() {
+    return misses.sum();
+  }
+}
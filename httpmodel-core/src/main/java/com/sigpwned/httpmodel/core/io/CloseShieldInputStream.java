@@ -0,0 +1,39 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2023 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.core.io;
+
+import java.io.FilterInputStream;
+import java.io.InputStream;
+
+/**
+ * Passes everything through to another stream except {@link #close()}, which does nothing. Lets
+ * {@link EntityInputStream} close its filters without closing the stream they read from.
+ */
+/* default */ class CloseShieldInputStream extends FilterInputStream {
+  public CloseShieldInputStream(InputStream in) {
+    super(in);
+  }
+
+  /**
+   * Does not close the underlying stream
+   */
+  @Override
+  public void close() {}
+}
@@ -0,0 +1,131 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2023 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.core.io;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+
+/**
+ * A bounded, thread-safe pool of {@link Deflater} instances, all of the same format. Each
+ * {@code Deflater} holds native memory until it is ended, so allocating one per entity is
+ * expensive. When the pool is empty, {@link #acquire(int)} creates a new deflater. When the pool is
+ * full, {@link #release(Deflater)} ends the given deflater right away instead of waiting for the
+ * garbage collector. Either way, callers never block.
+ *
+ * @see InflaterPool
+ */
+public class DeflaterPool {
+  public static final int DEFAULT_MAX_POOLED = 64;
+
+  /**
+   * The pool of deflaters for raw deflate data, e.g., the body of a gzip member
+   */
+  public static final DeflaterPool NOWRAP = new DeflaterPool(true, DEFAULT_MAX_POOLED);
+
+  /**
+   * The pool of deflaters for deflate data in the zlib format
+   */
+  public static final DeflaterPool ZLIB = new DeflaterPool(false, DEFAULT_MAX_POOLED);
+
+  private final boolean nowrap;
+
+  private final BlockingQueue<Deflater> pooled;
+
+  private final LongAdder hits;
+
+  private final LongAdder misses;
+
+  /**
+   * @param nowrap the format of the deflaters in the pool
+   * @param maxPooled the most deflaters to keep in the pool at once
+   *
+   * @see Deflater#Deflater(int, boolean)
+   */
+  public DeflaterPool(boolean nowrap, int maxPooled) {
+    if (maxPooled <= 0)
+      throw new IllegalArgumentException("maxPooled must be positive");
+    this.nowrap = nowrap;
+    this.pooled = new ArrayBlockingQueue<>(maxPooled);
+    this.hits = new LongAdder();
+    this.misses = new LongAdder();
+  }
+
+  /**
+   * Returns a deflater with the given compression level that is ready for new input. The caller
+   * should pass it to {@link #release(Deflater)} when done.
+   *
+   * @param level the compression level, from 0 to 9, or {@link Deflater#DEFAULT_COMPRESSION}
+   * @throws IllegalArgumentException if the level is not valid
+   */
+  public Deflater acquire(int level) {
+    if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION)
+      throw new IllegalArgumentException("invalid level " + level);
+    Deflater result = pooled.poll();
+    if (result != null) {
+      hits.increment();
+      result.setLevel(level);
+    } else {
+      misses.increment();
+      result = new Deflater(level, nowrap);
+    }
+    return result;
+  }
+
+  /**
+   * Resets the given deflater and returns it to the pool. The caller must not use it afterwards.
+   */
+  public void release(Deflater deflater) {
+    if (deflater == null)
+      throw new NullPointerException();
+    deflater.reset();
+    if (!pooled.offer(deflater))
+      deflater.end();
+  }
+
+  /**
+   * @return the nowrap
+   */
+  public boolean isNowrap() {
+    return nowrap;
+  }
+
+  /**
+   * @return the number of deflaters currently available in the pool
+   */
+  public int getPooledCount() {
+    return pooled.size();
+  }
+
+  /**
+   * @return the number of calls to {@link #acquire(int)} satisfied from the pool
+   */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * @return the number of calls to {@link #acquire(int)} that had to create a new deflater
+   */
+  public long getMissCount() {
+    return misses.sum();
+  }
+}
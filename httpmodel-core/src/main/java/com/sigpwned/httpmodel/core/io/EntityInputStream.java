@@ -21,10 +21,17 @@ package com.sigpwned.httpmodel.core.io;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.OptionalLong;
 import java.util.zip.GZIPInputStream;
+import com.sigpwned.httpmodel.core.util.MoreByteStreams;
 
 /**
  * <p>
@@ -47,8 +54,13 @@ import java.util.zip.GZIPInputStream;
  * <em>Filtering</em> means wrapping the underlying input stream in another input stream for
  * transformation, e.g., a {@link GZIPInputStream} for inline decompression.
  * </p>
+ *
+ * <p>
+ * This stream is also a {@link ReadableByteChannel}, so NIO consumers can read it without wrapping
+ * it in {@link Channels#newChannel(InputStream)}.
+ * </p>
  */
-public class EntityInputStream extends InputStream {
+public class EntityInputStream extends InputStream implements ReadableByteChannel {
   /**
    * If {@code true}, then no bytes have been read since this stream was opened or restarted.
    *
@@ -79,6 +91,27 @@ public class EntityInputStream extends InputStream {
    */
   private boolean closed;
 
+  /**
+   * If {@code true}, then {@link #replace(InputStream)} has been called since this stream was
+   * constructed, so {@link #lengthHint()} no longer describes its contents.
+   */
+  private boolean replaced;
+
+  /**
+   * The stream recording this stream's contents as they are read, if this stream is buffering
+   * incrementally, or {@code null} otherwise. Always the same object as {@link #headInputStream}
+   * when not {@code null}.
+   *
+   * @see #bufferIncrementally(boolean, int, BufferManager)
+   */
+  private RecordingInputStream recording;
+
+  /**
+   * If {@code true}, then {@link #restart()} reads and records the rest of {@link #recording} if
+   * the consumer has not read it all already.
+   */
+  private boolean drainOnRestart;
+
   public EntityInputStream(InputStream input) {
     if (input == null)
       throw new NullPointerException();
@@ -90,6 +123,7 @@ public class EntityInputStream extends InputStream {
       // This should never happen, since we're not closed and there's nothing to close.
       throw new AssertionError("Failed to initialize BufferableInputStream", e);
     }
+    this.replaced = false;
   }
 
   /**
@@ -102,9 +136,11 @@ public class EntityInputStream extends InputStream {
       throw new IOException("closed");
     filterSources.clear();
     if (tailInputStream != null)
-      tailInputStream.close();
+      closePipeline();
     headInputStream = this.tailInputStream = newInputStream;
+    recording = null;
     atStart = true;
+    replaced = true;
   }
 
   protected void filter(ByteFilterSource filterSource) throws IOException {
@@ -112,24 +148,30 @@ public class EntityInputStream extends InputStream {
       throw new IOException("closed");
     if (!isAtStart())
       throw new IllegalStateException("not at start");
+    // The first filter gets a view of the head that ignores close, so restart can close the old
+    // filters, e.g., to return pooled inflaters, without closing the buffer it replays.
+    InputStream newInputStream = filterSource
+        .filter(isFiltered() ? tailInputStream : new CloseShieldInputStream(headInputStream));
     filterSources.add(filterSource);
-    InputStream newInputStream = filterSource.filter(tailInputStream);
     tailInputStream = newInputStream;
   }
 
   /**
-   * @return {@code true} if this stream is buffered, and {@code false} otherwise.
+   * @return {@code true} if this stream is buffered, or is buffering incrementally, and
+   *         {@code false} otherwise.
    *
    * @see #restart()
+   * @see #bufferIncrementally(boolean)
    */
   public boolean isBuffered() {
-    return headInputStream instanceof BufferedInputStream;
+    return headInputStream instanceof BufferedInputStream || recording != null;
   }
 
   /**
    * If this stream is buffered, then re-starts the stream from the beginning.
    *
-   * @throws IllegalStateException if the stream is not buffered
+   * @throws IllegalStateException if the stream is not buffered, or is buffering incrementally
+   *         without draining on restart and has not been read to the end
    * @throws IOException if there is a problem during I/O, in which case this stream is in an
    *         unknown state. Users should abort their current operation and close this stream.
    */
@@ -142,9 +184,25 @@ public class EntityInputStream extends InputStream {
       return;
 
     List<ByteFilterSource> filterSources = new ArrayList<>(this.filterSources);
-    BufferedInputStream bufferedInputStream = (BufferedInputStream) headInputStream;
+    if (isFiltered()) {
+      // Release the old filters' resources. This does not close the head.
+      tailInputStream.close();
+    }
+
+    BufferedInputStream bufferedInputStream;
+    if (recording != null) {
+      // The first pass is over, so the recording becomes the buffer from now on
+      bufferedInputStream = recording.finish(drainOnRestart);
+      recording = null;
+    } else {
+      bufferedInputStream = (BufferedInputStream) headInputStream;
+    }
 
-    replace(bufferedInputStream);
+    // Don't use replace here, since closing the old pipeline would close the buffered stream, too,
+    // and some buffered streams (e.g., FileBufferedInputStream) release their contents on close.
+    this.filterSources.clear();
+    headInputStream = tailInputStream = bufferedInputStream;
+    atStart = true;
 
     bufferedInputStream.restart();
     for (ByteFilterSource filterSource : filterSources)
@@ -156,7 +214,7 @@ public class EntityInputStream extends InputStream {
       throw new IOException("closed");
     if (isFiltered())
       return OptionalLong.empty();
-    if (!isBuffered())
+    if (!isBuffered() || recording != null)
       return OptionalLong.empty();
     BufferedInputStream bufferedInputStream = (BufferedInputStream) headInputStream;
     return bufferedInputStream.length();
@@ -166,13 +224,21 @@ public class EntityInputStream extends InputStream {
    * Converts this stream into a buffered stream using the given
    * {@link InputStreamBufferingStrategy}. Must be called as the first operation on this stream.
    *
+   * <p>
+   * If {@link #lengthHint()} gives the expected length of the stream, then the strategy receives
+   * it to size its buffers, and a buffered stream of any other length is an error. An empty stream
+   * is always accepted, since, e.g., responses to HEAD requests declare the length of an entity
+   * they do not carry.
+   * </p>
+   *
    * @param strategy The strategy to use to buffer this stream's contents
    * @return {@code true} if the given strategy was used to buffer this stream, or {@code false} if
    *         this stream was already buffered.
    * @throws IllegalStateException if this method was not called as the first operation on this
    *         stream
-   * @throws IOException if there is a problem during I/O, in which case this stream is in an
-   *         unknown state. Users should abort their current operation and close this stream.
+   * @throws IOException if there is a problem during I/O or the stream does not have the expected
+   *         length, in which case this stream is in an unknown state. Users should abort their
+   *         current operation and close this stream.
    */
   public boolean buffer(InputStreamBufferingStrategy strategy) throws IOException {
     if (isClosed())
@@ -187,8 +253,113 @@ public class EntityInputStream extends InputStream {
       return false;
 
     // Use this strategy to buffer this stream
+    OptionalLong lengthHint = replaced ? OptionalLong.empty() : lengthHint();
     boolean successful = false;
-    BufferedInputStream bufferedInput = strategy.newBufferer().buffer(headInputStream);
+    BufferedInputStream bufferedInput =
+        strategy.newBufferer().buffer(headInputStream, lengthHint);
+    try {
+      if (lengthHint.isPresent()) {
+        OptionalLong length = bufferedInput.length();
+        if (length.isPresent() && length.getAsLong() != 0L
+            && length.getAsLong() != lengthHint.getAsLong())
+          throw new IOException("entity has " + length.getAsLong() + " bytes, but expected "
+              + lengthHint.getAsLong());
+      }
+      replace(bufferedInput);
+      successful = true;
+    } finally {
+      if (!successful)
+        bufferedInput.close();
+    }
+
+    return true;
+  }
+
+  /**
+   * Converts this stream into a buffered stream without reading anything up front. Instead, this
+   * stream records its contents as the consumer reads them, so the first pass runs at the speed of
+   * the underlying stream, and {@link #restart()} replays the recording afterwards. Must be called
+   * as the first operation on this stream.
+   *
+   * @param drainOnRestart if {@code true}, then {@link #restart()} reads and records whatever the
+   *        consumer did not read before replaying. Otherwise, {@link #restart()} requires the
+   *        consumer to read this stream to the end first.
+   * @return {@code true} if this call started buffering this stream, or {@code false} if this
+   *         stream was already buffered.
+   * @throws IllegalStateException if this method was not called as the first operation on this
+   *         stream
+   *
+   * @see #buffer(InputStreamBufferingStrategy)
+   * @see #bufferIncrementally(boolean, int, BufferManager)
+   */
+  public boolean bufferIncrementally(boolean drainOnRestart) throws IOException {
+    return bufferIncrementally(drainOnRestart, InputStreamBufferer.DEFAULT_MAX_BUFFER_SIZE,
+        BufferManager.DEFAULT);
+  }
+
+  /**
+   * As {@link #bufferIncrementally(boolean)}, but keeps at most {@code maxMemory} bytes of the
+   * recording in memory, and only as much as the given manager can reserve. The recording moves to
+   * a temporary file once it outgrows either limit.
+   *
+   * @throws IllegalArgumentException if {@code maxMemory} is negative
+   */
+  public boolean bufferIncrementally(boolean drainOnRestart, int maxMemory, BufferManager manager)
+      throws IOException {
+    if (manager == null)
+      throw new NullPointerException();
+    if (maxMemory < 0)
+      throw new IllegalArgumentException("maxMemory must not be negative");
+    if (isClosed())
+      throw new IOException("closed");
+    if (!isAtStart())
+      throw new IllegalStateException("not at start of stream");
+    if (isFiltered())
+      throw new IllegalStateException("stream cannot be buffered after filtering");
+    if (isBuffered())
+      return false;
+
+    recording = new RecordingInputStream(headInputStream, maxMemory, manager);
+    headInputStream = tailInputStream = recording;
+    this.drainOnRestart = drainOnRestart;
+
+    return true;
+  }
+
+  /**
+   * Converts this stream into a buffered stream of its <em>filtered</em> contents using the given
+   * {@link InputStreamBufferingStrategy}. Must be called as the first operation on this stream, or
+   * right after {@link #restart()}.
+   *
+   * <p>
+   * Unlike {@link #buffer(InputStreamBufferingStrategy)}, which buffers the raw contents and runs
+   * every filter again on each {@link #restart()}, this method runs the filters once and buffers
+   * their output. The filters are then dropped, so restarting is a cheap rewind of the buffer, and
+   * {@link #length()} reports the filtered length, e.g., the decompressed length of a gzip entity.
+   * If this stream has no filters, then this method is equivalent to
+   * {@link #buffer(InputStreamBufferingStrategy)}.
+   * </p>
+   *
+   * @param strategy The strategy to use to buffer this stream's filtered contents
+   * @return {@code true} if the given strategy was used to buffer this stream, or {@code false} if
+   *         this stream was already buffered and has no filters.
+   * @throws IllegalStateException if this method was not called at the start of this stream
+   * @throws IOException if there is a problem during I/O, in which case this stream is in an
+   *         unknown state. Users should abort their current operation and close this stream.
+   */
+  public boolean bufferFiltered(InputStreamBufferingStrategy strategy) throws IOException {
+    if (strategy == null)
+      throw new NullPointerException();
+    if (isClosed())
+      throw new IOException("closed");
+    if (!isAtStart())
+      throw new IllegalStateException("not at start of stream");
+    if (!isFiltered())
+      return buffer(strategy);
+
+    // The length hint describes the raw contents, not the filtered ones, so don't pass it on
+    boolean successful = false;
+    BufferedInputStream bufferedInput = strategy.newBufferer().buffer(tailInputStream);
     try {
       replace(bufferedInput);
       successful = true;
@@ -224,6 +395,26 @@ public class EntityInputStream extends InputStream {
     return tailInputStream.read(b);
   }
 
+  /**
+   * Reads bytes from this stream into the given buffer, per {@link ReadableByteChannel}. If this
+   * stream is buffered and not filtered, then the buffered stream fills the buffer directly, e.g.,
+   * from its backing array or file channel, even if the buffer is direct.
+   *
+   * @return the number of bytes read, possibly zero, or -1 if this stream is at its end
+   * @see BufferedInputStream#read(ByteBuffer)
+   */
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    if (dst == null)
+      throw new NullPointerException();
+    if (isClosed())
+      throw new IOException("closed");
+    atStart = false;
+    if (!isFiltered() && headInputStream instanceof BufferedInputStream)
+      return ((BufferedInputStream) headInputStream).read(dst);
+    return MoreByteStreams.readSome(tailInputStream, dst);
+  }
+
   @Override
   public int available() throws IOException {
     if (isClosed())
@@ -257,11 +448,81 @@ public class EntityInputStream extends InputStream {
     return tailInputStream.skip(n);
   }
 
+  /**
+   * Writes the rest of this stream to the given stream and returns the number of bytes written.
+   * Does not close either stream. If this stream is buffered and not filtered, then the buffered
+   * stream writes its contents directly, e.g., in a single bulk write from memory, and otherwise
+   * this method copies through a pooled buffer.
+   *
+   * @see BufferedInputStream#transferTo(OutputStream)
+   */
+  public long transferTo(OutputStream out) throws IOException {
+    if (out == null)
+      throw new NullPointerException();
+    if (isClosed())
+      throw new IOException("closed");
+    atStart = false;
+    if (!isFiltered() && headInputStream instanceof BufferedInputStream)
+      return ((BufferedInputStream) headInputStream).transferTo(out);
+    return MoreByteStreams.transfer(tailInputStream, out);
+  }
+
+  /**
+   * Writes the rest of this stream to the given channel, which should be in blocking mode, and
+   * returns the number of bytes written. Does not close this stream or the channel. If this stream
+   * is buffered and not filtered, then the buffered stream writes its contents directly, e.g., with
+   * {@link FileChannel#transferTo(long, long, WritableByteChannel)} from a file, and otherwise this
+   * method copies through a pooled buffer.
+   *
+   * @see BufferedInputStream#transferTo(WritableByteChannel)
+   */
+  public long transferTo(WritableByteChannel out) throws IOException {
+    if (out == null)
+      throw new NullPointerException();
+    if (isClosed())
+      throw new IOException("closed");
+    atStart = false;
+    if (!isFiltered() && headInputStream instanceof BufferedInputStream)
+      return ((BufferedInputStream) headInputStream).transferTo(out);
+    return MoreByteStreams.transfer(tailInputStream, out);
+  }
+
   @Override
   public void close() throws IOException {
     if (isClosed())
-      throw new IOException("closed");
-    tailInputStream.close();
+      return;
+    closed = true;
+    closePipeline();
+  }
+
+  /**
+   * hook
+   *
+   * @return the number of bytes this stream is expected to contain when constructed, if known,
+   *         e.g., from a Content-Length header. Ignored after {@link #replace(InputStream)}.
+   */
+  protected OptionalLong lengthHint() throws IOException {
+    return OptionalLong.empty();
+  }
+
+  /**
+   * @return {@code true} if this stream has not been closed, and {@code false} otherwise
+   */
+  @Override
+  public boolean isOpen() {
+    return !isClosed();
+  }
+
+  /**
+   * Closes the filters, if any, and then the head, which the filters do not close
+   */
+  private void closePipeline() throws IOException {
+    try {
+      if (isFiltered())
+        tailInputStream.close();
+    } finally {
+      headInputStream.close();
+    }
   }
 
   protected boolean isAtStart() {
@@ -0,0 +1,125 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2023 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.core.io;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Inflater;
+
+/**
+ * A bounded, thread-safe pool of {@link Inflater} instances, all of the same format. Each
+ * {@code Inflater} holds native memory until it is ended, so allocating one per entity is
+ * expensive. When the pool is empty, {@link #acquire()} creates a new inflater. When the pool is
+ * full, {@link #release(Inflater)} ends the given inflater right away instead of waiting for the
+ * garbage collector. Either way, callers never block.
+ *
+ * @see ByteArrayPool
+ */
+public class InflaterPool {
+  public static final int DEFAULT_MAX_POOLED = 64;
+
+  /**
+   * The pool of inflaters for raw deflate data, e.g., the body of a gzip member
+   */
+  public static final InflaterPool NOWRAP = new InflaterPool(true, DEFAULT_MAX_POOLED);
+
+  /**
+   * The pool of inflaters for deflate data in the zlib format
+   */
+  public static final InflaterPool ZLIB = new InflaterPool(false, DEFAULT_MAX_POOLED);
+
+  private final boolean nowrap;
+
+  private final BlockingQueue<Inflater> pooled;
+
+  private final LongAdder hits;
+
+  private final LongAdder misses;
+
+  /**
+   * @param nowrap the format of the inflaters in the pool
+   * @param maxPooled the most inflaters to keep in the pool at once
+   *
+   * @see Inflater#Inflater(boolean)
+   */
+  public InflaterPool(boolean nowrap, int maxPooled) {
+    if (maxPooled <= 0)
+      throw new IllegalArgumentException("maxPooled must be positive");
+    this.nowrap = nowrap;
+    this.pooled = new ArrayBlockingQueue<>(maxPooled);
+    this.hits = new LongAdder();
+    this.misses = new LongAdder();
+  }
+
+  /**
+   * Returns an inflater that is ready for new input. The caller should pass it to
+   * {@link #release(Inflater)} when done.
+   */
+  public Inflater acquire() {
+    Inflater result = pooled.poll();
+    if (result != null) {
+      hits.increment();
+    } else {
+      misses.increment();
+      result = new Inflater(nowrap);
+    }
+    return result;
+  }
+
+  /**
+   * Resets the given inflater and returns it to the pool. The caller must not use it afterwards.
+   */
+  public void release(Inflater inflater) {
+    if (inflater == null)
+      throw new NullPointerException();
+    inflater.reset();
+    if (!pooled.offer(inflater))
+      inflater.end();
+  }
+
+  /**
+   * @return the nowrap
+   */
+  public boolean isNowrap() {
+    return nowrap;
+  }
+
+  /**
+   * @return the number of inflaters currently available in the pool
+   */
+  public int getPooledCount() {
+    return pooled.size();
+  }
+
+  /**
+   * @return the number of calls to {@link #acquire()} satisfied from the pool
+   */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * @return the number of calls to {@link #acquire()} that had to create a new inflater
+   */
+  public long getMissCount() {
+    return misses.sum();
+  }
+}
@@ -19,13 +19,23 @@
  */
 package com.sigpwned.httpmodel.core.io;
 
+import static java.util.Collections.emptyList;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import com.sigpwned.httpmodel.core.io.buffered.DirectBufferedInputStream;
 import com.sigpwned.httpmodel.core.io.buffered.FileBufferedInputStream;
+import com.sigpwned.httpmodel.core.io.buffered.MappedFileBufferedInputStream;
 import com.sigpwned.httpmodel.core.io.buffered.MemoryBufferedInputStream;
 import com.sigpwned.httpmodel.core.util.MoreByteStreams;
 
@@ -33,6 +43,8 @@ import com.sigpwned.httpmodel.core.util.MoreByteStreams;
 public interface InputStreamBufferer {
   public static final int DEFAULT_MAX_BUFFER_SIZE = 64 * 1024;
 
+  public static final long DEFAULT_MAX_DIRECT_BUFFER_SIZE = 16L * 1024L * 1024L;
+
   /**
    * Equivalent to {@code newDefaultInstance(DEFAULT_MAX_BUFFER_SIZE)}.
    */
@@ -40,54 +52,321 @@ public interface InputStreamBufferer {
     return newDefaultInstance(DEFAULT_MAX_BUFFER_SIZE);
   }
 
+  /**
+   * Equivalent to {@code newDefaultInstance(maxBufferSize, ByteArrayPool.DEFAULT)}.
+   */
+  public static InputStreamBufferer newDefaultInstance(int maxBufferSize) {
+    return newDefaultInstance(maxBufferSize, ByteArrayPool.DEFAULT);
+  }
+
+  /**
+   * Equivalent to {@code newDefaultInstance(maxBufferSize, pool, BufferManager.DEFAULT)}.
+   */
+  public static InputStreamBufferer newDefaultInstance(int maxBufferSize, ByteArrayPool pool) {
+    return newDefaultInstance(maxBufferSize, pool, BufferManager.DEFAULT);
+  }
+
   /**
    * If the given {@link InputStream} contains fewer than {code maxBufferSize} bytes, then returns a
    * {@link MemoryBufferedInputStream}. Otherwise, writes the contents of the stream to a temporary
    * file and returns a {@link FileBufferedInputStream}. The temporary file is deleted automatically
    * when the given stream is closed.
    *
+   * <p>
+   * The stream is read into chunks drawn from the given pool, so small entities do not pay for a
+   * buffer of {@code maxBufferSize} bytes. Entities kept in memory are copied into an array of
+   * exactly the right size, and the chunks go back to the pool.
+   * </p>
+   *
+   * <p>
+   * Given a length hint, reads entities shorter than {@code maxBufferSize} straight into an array
+   * of exactly that size, and streams longer entities straight to the temporary file without
+   * staging them in memory first.
+   * </p>
+   *
+   * <p>
+   * Entities are only kept in memory if the given manager can reserve the memory for them.
+   * Otherwise, they go to the temporary file, too.
+   * </p>
+   *
    * @see File#createTempFile(String, String)
    */
-  public static InputStreamBufferer newDefaultInstance(int maxBufferSize) {
+  public static InputStreamBufferer newDefaultInstance(int maxBufferSize, ByteArrayPool pool,
+      BufferManager manager) {
+    if (pool == null)
+      throw new NullPointerException();
+    if (manager == null)
+      throw new NullPointerException();
     return new InputStreamBufferer() {
       @Override
       public BufferedInputStream buffer(InputStream in) throws IOException {
-        byte[] buf = new byte[maxBufferSize];
-        int nread = MoreByteStreams.read(in, buf);
-        if (nread == 0)
-          return new NullInputStream();
-        if (nread < buf.length)
-          return new MemoryBufferedInputStream(buf, 0, nread);
+        List<byte[]> chunks = new ArrayList<>();
+        try {
+          int size = 0;
+          boolean eof = false;
+          while (!eof && size < maxBufferSize) {
+            byte[] chunk = pool.acquire();
+            chunks.add(chunk);
+            int len = Math.min(chunk.length, maxBufferSize - size);
+            int nread = MoreByteStreams.read(in, chunk, 0, len);
+            size = size + nread;
+            eof = nread < len;
+          }
+
+          if (size == 0)
+            return new NullInputStream();
+          if (size < maxBufferSize) {
+            if (manager.tryReserve(size))
+              return new MemoryBufferedInputStream(concat(chunks, size), 0, size, manager);
+            manager.recordSpill();
+          }
+
+          return spill(chunks, size, in, chunks.get(0));
+        } finally {
+          for (byte[] chunk : chunks)
+            pool.release(chunk);
+        }
+      }
+
+      @Override
+      public BufferedInputStream buffer(InputStream in, OptionalLong lengthHint)
+          throws IOException {
+        if (!lengthHint.isPresent())
+          return buffer(in);
 
+        long length = lengthHint.getAsLong();
+        if (length < maxBufferSize && manager.tryReserve(length)) {
+          BufferedInputStream result = null;
+          try {
+            byte[] buf = new byte[(int) length];
+            int nread = MoreByteStreams.read(in, buf);
+            if (nread == length && in.read() != -1)
+              throw new IOException("entity has more than expected " + length + " bytes");
+            if (nread != 0)
+              result = new MemoryBufferedInputStream(buf, 0, nread, manager);
+          } finally {
+            if (result == null)
+              manager.release(length);
+          }
+          return result != null ? result : new NullInputStream();
+        }
+        if (length < maxBufferSize)
+          manager.recordSpill();
+
+        byte[] buf = pool.acquire();
+        try {
+          return spill(emptyList(), 0, in, buf);
+        } finally {
+          pool.release(buf);
+        }
+      }
+
+      /**
+       * Writes the first {@code size} bytes of the given chunks and then the rest of the given
+       * stream to a temporary file, using the given scratch buffer
+       */
+      private BufferedInputStream spill(List<byte[]> chunks, int size, InputStream in, byte[] buf)
+          throws IOException {
         BufferedInputStream result = null;
         File tmp = File.createTempFile("input.", ".buf");
         try {
           try (OutputStream out = new FileOutputStream(tmp)) {
-            out.write(buf, 0, nread);
-            MoreByteStreams.drain(in, out);
+            int remaining = size;
+            for (byte[] chunk : chunks) {
+              int len = Math.min(chunk.length, remaining);
+              out.write(chunk, 0, len);
+              remaining = remaining - len;
+            }
+            for (int nread = in.read(buf); nread != -1; nread = in.read(buf))
+              out.write(buf, 0, nread);
           }
           result = new FileBufferedInputStream(tmp, true);
         } finally {
           if (result == null)
             tmp.delete();
         }
+        return result;
+      }
+
+      /**
+       * Copies the first {@code size} bytes of the given chunks into a single array
+       */
+      private byte[] concat(List<byte[]> chunks, int size) {
+        byte[] result = new byte[size];
+        int offset = 0;
+        for (byte[] chunk : chunks) {
+          int len = Math.min(chunk.length, size - offset);
+          System.arraycopy(chunk, 0, result, offset, len);
+          offset = offset + len;
+        }
+        return result;
+      }
+    };
+  }
+
+  /**
+   * Equivalent to
+   * {@code newDirectInstance(DEFAULT_MAX_DIRECT_BUFFER_SIZE, ByteBufferPool.DEFAULT)}.
+   */
+  public static InputStreamBufferer newDirectInstance() {
+    return newDirectInstance(DEFAULT_MAX_DIRECT_BUFFER_SIZE, ByteBufferPool.DEFAULT);
+  }
+
+  /**
+   * Equivalent to {@code newDirectInstance(maxBufferSize, pool, BufferManager.DEFAULT)}.
+   */
+  public static InputStreamBufferer newDirectInstance(long maxBufferSize, ByteBufferPool pool) {
+    return newDirectInstance(maxBufferSize, pool, BufferManager.DEFAULT);
+  }
+
+  /**
+   * If the given {@link InputStream} contains no more than {@code maxBufferSize} bytes, then
+   * returns a {@link DirectBufferedInputStream} that holds the contents off the Java heap in
+   * segments drawn from the given pool. Otherwise, writes the contents of the stream to a temporary
+   * file and returns a {@link FileBufferedInputStream}, as {@link #newFileInstance()} does. Given a
+   * length hint larger than {@code maxBufferSize}, goes straight to the file. Also goes to the file
+   * if the given manager cannot reserve memory for the entity. Since each entity pins whole
+   * segments, memory is reserved a whole segment at a time as segments are acquired.
+   */
+  public static InputStreamBufferer newDirectInstance(long maxBufferSize, ByteBufferPool pool,
+      BufferManager manager) {
+    if (pool == null)
+      throw new NullPointerException();
+    if (manager == null)
+      throw new NullPointerException();
+    return new InputStreamBufferer() {
+      @Override
+      public BufferedInputStream buffer(InputStream in) throws IOException {
+        return buffer(in, OptionalLong.empty());
+      }
+
+      @Override
+      public BufferedInputStream buffer(InputStream in, OptionalLong lengthHint)
+          throws IOException {
+        if (lengthHint.isPresent() && lengthHint.getAsLong() > maxBufferSize)
+          return newFileInstance().buffer(in);
+
+        List<ByteBuffer> segments = new ArrayList<>();
+        byte[] buf = ByteArrayPool.DEFAULT.acquire();
+        long size = 0L;
+        long reserved = 0L;
+        boolean transferred = false;
+        try {
+          ByteBuffer segment = null;
+          for (int nread = in.read(buf); nread != -1; nread = in.read(buf)) {
+            if (size + nread > maxBufferSize)
+              return spill(segments, buf, nread, in);
+            int remaining = segment != null ? segment.remaining() : 0;
+            if (nread > remaining) {
+              long chunkSize = pool.getChunkSize();
+              long needed = (nread - remaining + chunkSize - 1L) / chunkSize * chunkSize;
+              if (!manager.tryReserve(needed)) {
+                manager.recordSpill();
+                return spill(segments, buf, nread, in);
+              }
+              reserved = reserved + needed;
+            }
+            size = size + nread;
+            for (int off = 0; off < nread;) {
+              if (segment == null || !segment.hasRemaining()) {
+                segment = pool.acquire();
+                segments.add(segment);
+              }
+              int len = Math.min(segment.remaining(), nread - off);
+              segment.put(buf, off, len);
+              off = off + len;
+            }
+          }
+
+          if (size == 0L)
+            return new NullInputStream();
+
+          for (ByteBuffer s : segments)
+            ((Buffer) s).flip();
+          BufferedInputStream result = new DirectBufferedInputStream(pool, segments, manager);
+          transferred = true;
+          return result;
+        } finally {
+          ByteArrayPool.DEFAULT.release(buf);
+          if (!transferred) {
+            for (ByteBuffer segment : segments)
+              pool.release(segment);
+            manager.release(reserved);
+          }
+        }
+      }
 
+      /**
+       * Writes the given segments, the first {@code len} bytes of the given scratch buffer, and
+       * then the rest of the given stream to a temporary file
+       */
+      private BufferedInputStream spill(List<ByteBuffer> segments, byte[] buf, int len,
+          InputStream in) throws IOException {
+        BufferedInputStream result = null;
+        File tmp = File.createTempFile("input.", ".buf");
+        try {
+          try (FileOutputStream out = new FileOutputStream(tmp)) {
+            for (ByteBuffer segment : segments) {
+              ((Buffer) segment).flip();
+              while (segment.hasRemaining())
+                out.getChannel().write(segment);
+            }
+            out.write(buf, 0, len);
+            for (int nread = in.read(buf); nread != -1; nread = in.read(buf))
+              out.write(buf, 0, nread);
+          }
+          result = new FileBufferedInputStream(tmp, true);
+        } finally {
+          if (result == null)
+            tmp.delete();
+        }
         return result;
       }
     };
   }
 
+  /**
+   * Equivalent to {@code newMemoryInstance(BufferManager.DEFAULT)}.
+   */
   public static InputStreamBufferer newMemoryInstance() {
+    return newMemoryInstance(BufferManager.DEFAULT);
+  }
+
+  /**
+   * Reads the given {@link InputStream} into memory and returns a
+   * {@link MemoryBufferedInputStream}, unless the given manager cannot reserve the memory for it,
+   * in which case it buffers to a temporary file like {@link #newFileInstance()}.
+   */
+  public static InputStreamBufferer newMemoryInstance(BufferManager manager) {
+    if (manager == null)
+      throw new NullPointerException();
     return new InputStreamBufferer() {
       @Override
       public BufferedInputStream buffer(InputStream in) throws IOException {
         ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        byte[] chunk = ByteArrayPool.DEFAULT.acquire();
+        long reserved = 0L;
         try {
-          MoreByteStreams.drain(in, buf);
+          for (int nread = in.read(chunk); nread != -1; nread = in.read(chunk)) {
+            if (!manager.tryReserve(nread)) {
+              manager.recordSpill();
+              buf.write(chunk, 0, nread);
+              return newFileInstance()
+                  .buffer(new SequenceInputStream(new ByteArrayInputStream(buf.toByteArray()), in));
+            }
+            reserved = reserved + nread;
+            buf.write(chunk, 0, nread);
+          }
+
+          byte[] bytes = buf.toByteArray();
+          BufferedInputStream result =
+              new MemoryBufferedInputStream(bytes, 0, bytes.length, manager);
+          reserved = 0L;
+          return result;
         } finally {
-          buf.close();
+          ByteArrayPool.DEFAULT.release(chunk);
+          manager.release(reserved);
         }
-        return new MemoryBufferedInputStream(buf.toByteArray());
       }
     };
   }
@@ -114,5 +393,41 @@ public interface InputStreamBufferer {
     };
   }
 
+  /**
+   * Like {@link #newFileInstance()}, but returns a {@link MappedFileBufferedInputStream}, which
+   * restarts without reopening the file. Good fit for large entities that are replayed often.
+   */
+  public static InputStreamBufferer newMappedFileInstance() {
+    return new InputStreamBufferer() {
+      @Override
+      public BufferedInputStream buffer(InputStream in) throws IOException {
+        BufferedInputStream result = null;
+
+        File tmp = File.createTempFile("buffer.", ".bin");
+        try {
+          try (OutputStream out = new FileOutputStream(tmp)) {
+            MoreByteStreams.drain(in, out);
+          }
+          result = new MappedFileBufferedInputStream(tmp, true);
+        } finally {
+          if (result == null)
+            tmp.delete();
+        }
+
+        return result;
+      }
+    };
+  }
+
   public BufferedInputStream buffer(InputStream input) throws IOException;
+
+  /**
+   * Buffers the given stream, which is expected to contain {@code lengthHint} bytes, if present.
+   * The hint is only a hint, so implementations must still handle streams of a different length.
+   * The default implementation ignores the hint.
+   */
+  public default BufferedInputStream buffer(InputStream input, OptionalLong lengthHint)
+      throws IOException {
+    return buffer(input);
+  }
 }
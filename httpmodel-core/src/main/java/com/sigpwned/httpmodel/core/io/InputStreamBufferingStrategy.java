@@ -27,5 +27,10 @@ public interface InputStreamBufferingStrategy {
 
   public static InputStreamBufferingStrategy FILE = InputStreamBufferer::newFileInstance;
 
+  public static InputStreamBufferingStrategy DIRECT = InputStreamBufferer::newDirectInstance;
+
+  public static InputStreamBufferingStrategy MAPPED_FILE =
+      InputStreamBufferer::newMappedFileInstance;
+
   public InputStreamBufferer newBufferer();
 }
@@ -0,0 +1,258 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2023 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.core.io;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import com.sigpwned.httpmodel.core.io.buffered.FileBufferedInputStream;
+import com.sigpwned.httpmodel.core.io.buffered.MemoryBufferedInputStream;
+
+/**
+ * Passes bytes through from a source stream and records a copy of each byte as it goes, so the
+ * content can be replayed afterwards without buffering it all up front. Recordings start in memory
+ * and move to a temporary file once they outgrow {@code maxMemory} bytes, or once the given
+ * {@link BufferManager} cannot reserve the memory to grow them. The recording array is handed to
+ * the replay stream as is, along with its reservation, so finishing does not copy it again.
+ *
+ * @see EntityInputStream#bufferIncrementally(boolean, int, BufferManager)
+ */
+/* default */ class RecordingInputStream extends InputStream {
+  private final InputStream source;
+
+  private final int maxMemory;
+
+  private final BufferManager manager;
+
+  /**
+   * The recording while it is in memory, or {@code null} after it moves to {@link #file}. All
+   * {@code memory.length} bytes are reserved from {@link #manager}.
+   */
+  private byte[] memory;
+
+  /**
+   * The number of bytes recorded in {@link #memory}
+   */
+  private int size;
+
+  /**
+   * The recording after it moves to a file, or {@code null} while it is in memory
+   */
+  private File file;
+
+  private OutputStream fileOutput;
+
+  private boolean eof;
+
+  public RecordingInputStream(InputStream source, int maxMemory, BufferManager manager) {
+    if (source == null)
+      throw new NullPointerException();
+    if (maxMemory < 0)
+      throw new IllegalArgumentException("maxMemory must not be negative");
+    if (manager == null)
+      throw new NullPointerException();
+    this.source = source;
+    this.maxMemory = maxMemory;
+    this.manager = manager;
+    this.memory = new byte[0];
+    this.size = 0;
+    this.eof = false;
+  }
+
+  @Override
+  public int read() throws IOException {
+    int b = source.read();
+    if (b == -1) {
+      eof = true;
+    } else {
+      record(b);
+    }
+    return b;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    int nread = source.read(b, off, len);
+    if (nread == -1) {
+      eof = true;
+    } else {
+      record(b, off, nread);
+    }
+    return nread;
+  }
+
+  /**
+   * Reads and records the skipped bytes, since they are part of the content, too
+   */
+  @Override
+  public long skip(long n) throws IOException {
+    byte[] buf = new byte[(int) Math.min(n, 8192L)];
+    long skipped = 0L;
+    while (skipped < n) {
+      int nread = read(buf, 0, (int) Math.min(buf.length, n - skipped));
+      if (nread == -1)
+        break;
+      skipped = skipped + nread;
+    }
+    return skipped;
+  }
+
+  @Override
+  public int available() throws IOException {
+    return source.available();
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  /**
+   * Closes the source and throws the recording away
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      source.close();
+    } finally {
+      discard();
+    }
+  }
+
+  /**
+   * Completes the recording and returns a stream that replays it from the start. Closes the
+   * source. After this call, the recording belongs to the returned stream.
+   *
+   * @param drain if {@code true}, then reads and records the rest of the source first. Otherwise,
+   *        the source must have been read to the end already.
+   * @throws IllegalStateException if the source has not been read to the end and {@code drain} is
+   *         {@code false}
+   */
+  public BufferedInputStream finish(boolean drain) throws IOException {
+    if (!eof) {
+      if (!drain)
+        throw new IllegalStateException("entity not read to end");
+      byte[] buf = new byte[8192];
+      while (read(buf, 0, buf.length) != -1) {
+        // The read records the bytes
+      }
+    }
+
+    BufferedInputStream result = null;
+    try {
+      source.close();
+      if (file != null) {
+        fileOutput.close();
+        fileOutput = null;
+        result = new FileBufferedInputStream(file, true);
+        file = null;
+      } else if (size == 0) {
+        result = new NullInputStream();
+      } else {
+        // The stream takes over the reservation and releases it on close
+        result = new MemoryBufferedInputStream(memory, 0, size, manager);
+        memory = null;
+      }
+    } finally {
+      if (result == null)
+        discard();
+    }
+
+    return result;
+  }
+
+  private void record(int b) throws IOException {
+    if (memory != null && !ensureCapacity(1))
+      spill();
+    if (memory != null) {
+      memory[size++] = (byte) b;
+    } else {
+      fileOutput.write(b);
+    }
+  }
+
+  private void record(byte[] b, int off, int len) throws IOException {
+    if (memory != null && !ensureCapacity(len))
+      spill();
+    if (memory != null) {
+      System.arraycopy(b, off, memory, size, len);
+      size = size + len;
+    } else {
+      fileOutput.write(b, off, len);
+    }
+  }
+
+  /**
+   * Grows {@link #memory} to hold {@code len} more bytes, reserving the extra memory first
+   *
+   * @return {@code true} if the bytes fit in memory, or {@code false} if the recording must spill
+   *         because it would outgrow {@link #maxMemory} or the manager could not reserve the memory
+   */
+  private boolean ensureCapacity(int len) {
+    long required = (long) size + len;
+    if (required <= memory.length)
+      return true;
+    if (required > maxMemory)
+      return false;
+    int capacity =
+        (int) Math.min(Math.max(Math.max(2L * memory.length, required), 8192L), maxMemory);
+    if (!manager.tryReserve(capacity - memory.length)) {
+      manager.recordSpill();
+      return false;
+    }
+    memory = Arrays.copyOf(memory, capacity);
+    return true;
+  }
+
+  /**
+   * Moves the recording from memory to a temporary file
+   */
+  private void spill() throws IOException {
+    file = File.createTempFile("input.", ".buf");
+    fileOutput = new BufferedOutputStream(new FileOutputStream(file));
+    fileOutput.write(memory, 0, size);
+    releaseMemory();
+  }
+
+  private void releaseMemory() {
+    if (memory != null) {
+      manager.release(memory.length);
+      memory = null;
+    }
+    size = 0;
+  }
+
+  private void discard() throws IOException {
+    releaseMemory();
+    try {
+      if (fileOutput != null)
+        fileOutput.close();
+    } finally {
+      fileOutput = null;
+      if (file != null)
+        file.delete();
+      file = null;
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2023 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.core.io.buffered;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Reads from a sequence of buffers, in order, without modifying anything but their positions
+ */
+/* default */ class ByteBuffersInputStream extends InputStream {
+  private final ByteBuffer[] buffers;
+  private int index;
+
+  public ByteBuffersInputStream(ByteBuffer[] buffers) {
+    this.buffers = buffers;
+    this.index = 0;
+  }
+
+  @Override
+  public int read() {
+    ByteBuffer buffer = current();
+    if (buffer == null)
+      return -1;
+    return buffer.get() & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) {
+    if (off < 0 || len < 0 || len > b.length - off)
+      throw new IndexOutOfBoundsException();
+    if (len == 0)
+      return 0;
+    ByteBuffer buffer = current();
+    if (buffer == null)
+      return -1;
+    int n = Math.min(len, buffer.remaining());
+    buffer.get(b, off, n);
+    return n;
+  }
+
+  @Override
+  public long skip(long n) {
+    long skipped = 0L;
+    while (skipped < n) {
+      ByteBuffer buffer = current();
+      if (buffer == null)
+        break;
+      int m = (int) Math.min(n - skipped, buffer.remaining());
+      ((Buffer) buffer).position(buffer.position() + m);
+      skipped = skipped + m;
+    }
+    return skipped;
+  }
+
+  @Override
+  public int available() {
+    ByteBuffer buffer = current();
+    return buffer != null ? buffer.remaining() : 0;
+  }
+
+  /**
+   * Copies bytes straight from the buffers into the given buffer
+   *
+   * @return the number of bytes read, possibly zero, or -1 if there are no bytes left
+   */
+  public int read(ByteBuffer dst) {
+    if (!dst.hasRemaining())
+      return 0;
+    ByteBuffer buffer = current();
+    if (buffer == null)
+      return -1;
+    int n = Math.min(dst.remaining(), buffer.remaining());
+    ByteBuffer src = buffer.duplicate();
+    ((Buffer) src).limit(src.position() + n);
+    dst.put(src);
+    ((Buffer) buffer).position(buffer.position() + n);
+    return n;
+  }
+
+  /**
+   * Writes the rest of the buffers straight to the given channel, which should be in blocking mode
+   *
+   * @return the number of bytes written
+   */
+  public long transferTo(WritableByteChannel out) throws IOException {
+    long total = 0L;
+    for (ByteBuffer buffer = current(); buffer != null; buffer = current())
+      total = total + out.write(buffer);
+    return total;
+  }
+
+  /**
+   * Drops the buffers, since their owner may reuse them once this stream is closed
+   */
+  @Override
+  public void close() {
+    index = buffers.length;
+    Arrays.fill(buffers, null);
+  }
+
+  /**
+   * @return the first buffer with bytes remaining, or {@code null} if there are none
+   */
+  private ByteBuffer current() {
+    while (index < buffers.length && !buffers[index].hasRemaining())
+      index = index + 1;
+    return index < buffers.length ? buffers[index] : null;
+  }
+}
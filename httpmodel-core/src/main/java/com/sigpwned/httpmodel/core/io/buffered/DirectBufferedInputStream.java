@@ -0,0 +1,126 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2023 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.core.io.buffered;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.OptionalLong;
+import com.sigpwned.httpmodel.core.io.BufferManager;
+import com.sigpwned.httpmodel.core.io.BufferedInputStream;
+import com.sigpwned.httpmodel.core.io.ByteBufferPool;
+
+/**
+ * A {@link BufferedInputStream} backed by direct {@link ByteBuffer} segments from a
+ * {@link ByteBufferPool}. Keeps large entities off the Java heap without going to disk. The
+ * segments go back to the pool when this stream is closed, after which it cannot be restarted.
+ */
+public class DirectBufferedInputStream extends BufferedInputStream {
+  private final ByteBufferPool pool;
+  private final ByteBuffer[] segments;
+  private final long length;
+  private final BufferManager manager;
+  private boolean released;
+
+  public DirectBufferedInputStream(ByteBufferPool pool, List<ByteBuffer> segments) {
+    this(pool, segments, null);
+  }
+
+  /**
+   * Takes ownership of the given segments, which must come from the given pool and be ready to
+   * read, i.e., flipped. Also takes ownership of a reservation from the given manager, if any, of
+   * the segments' total capacity, since the whole segments are held until close.
+   */
+  public DirectBufferedInputStream(ByteBufferPool pool, List<ByteBuffer> segments,
+      BufferManager manager) {
+    if (pool == null)
+      throw new NullPointerException();
+    if (segments == null)
+      throw new NullPointerException();
+    this.pool = pool;
+    this.segments = segments.toArray(new ByteBuffer[0]);
+    long length = 0L;
+    for (ByteBuffer segment : this.segments)
+      length = length + segment.remaining();
+    this.length = length;
+    this.manager = manager;
+    this.released = false;
+    in = newInputStream();
+  }
+
+  @Override
+  public OptionalLong length() throws IOException {
+    return OptionalLong.of(length);
+  }
+
+  /**
+   * Copies bytes straight from the segments into the given buffer
+   */
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    if (dst == null)
+      throw new NullPointerException();
+    return ((ByteBuffersInputStream) in).read(dst);
+  }
+
+  /**
+   * Writes the rest of the segments straight to the given channel, without copying them onto the
+   * heap
+   */
+  @Override
+  public long transferTo(WritableByteChannel out) throws IOException {
+    if (out == null)
+      throw new NullPointerException();
+    return ((ByteBuffersInputStream) in).transferTo(out);
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      super.close();
+    } finally {
+      if (!released) {
+        released = true;
+        long capacity = 0L;
+        for (ByteBuffer segment : segments) {
+          capacity = capacity + segment.capacity();
+          pool.release(segment);
+        }
+        if (manager != null)
+          manager.release(capacity);
+      }
+    }
+  }
+
+  /**
+   * hook
+   */
+  @Override
+  protected InputStream newInputStream() {
+    if (released)
+      throw new IllegalStateException("closed");
+    ByteBuffer[] views = new ByteBuffer[segments.length];
+    for (int i = 0; i < segments.length; i++)
+      views[i] = segments[i].duplicate();
+    return new ByteBuffersInputStream(views);
+  }
+}
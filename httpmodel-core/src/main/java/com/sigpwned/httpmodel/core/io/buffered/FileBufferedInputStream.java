@@ -21,8 +21,14 @@ package com.sigpwned.httpmodel.core.io.buffered;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.OptionalLong;
 import com.sigpwned.httpmodel.core.io.BufferedInputStream;
 
@@ -41,6 +47,48 @@ public class FileBufferedInputStream extends BufferedInputStream {
     return OptionalLong.of(file.length());
   }
 
+  /**
+   * Reads from the file's channel straight into the given buffer, direct or not
+   */
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    if (dst == null)
+      throw new NullPointerException();
+    return ((FileInputStream) in).getChannel().read(dst);
+  }
+
+  /**
+   * Writes the rest of the file to the given stream using
+   * {@link FileChannel#transferTo(long, long, WritableByteChannel)}, which copies the file directly
+   * when the stream is backed by a file
+   */
+  @Override
+  public long transferTo(OutputStream out) throws IOException {
+    if (out == null)
+      throw new NullPointerException();
+    if (out instanceof FileOutputStream)
+      return transferTo(((FileOutputStream) out).getChannel());
+    return transferTo(Channels.newChannel(out));
+  }
+
+  /**
+   * Writes the rest of the file to the given channel using
+   * {@link FileChannel#transferTo(long, long, WritableByteChannel)}, which lets the operating
+   * system copy the file directly, e.g., with sendfile, when the channel is a socket or a file
+   */
+  @Override
+  public long transferTo(WritableByteChannel out) throws IOException {
+    if (out == null)
+      throw new NullPointerException();
+    FileChannel channel = ((FileInputStream) in).getChannel();
+    long start = channel.position();
+    long position = start;
+    for (long size = channel.size(); position < size;)
+      position = position + channel.transferTo(position, size - position, out);
+    channel.position(position);
+    return position - start;
+  }
+
   @Override
   public void close() throws IOException {
     try {
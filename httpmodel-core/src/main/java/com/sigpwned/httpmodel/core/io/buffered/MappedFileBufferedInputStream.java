@@ -0,0 +1,119 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2023 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.core.io.buffered;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.OptionalLong;
+import com.sigpwned.httpmodel.core.io.BufferedInputStream;
+
+/**
+ * A {@link BufferedInputStream} backed by a memory-mapped file. The file is mapped once, up front,
+ * so restarting only creates a new view of the mapping at position zero, without opening the file
+ * again or making any system calls. This makes replays, e.g., for signing, hashing, and retries,
+ * much cheaper than with {@link FileBufferedInputStream} for large files.
+ *
+ * <p>
+ * The mapping stays valid until it is garbage collected, even after this stream is closed and the
+ * file is deleted. Some platforms, e.g., Windows, do not allow deleting a file while it is mapped,
+ * in which case {@code deleteOnClose} may not take effect until later.
+ * </p>
+ */
+public class MappedFileBufferedInputStream extends BufferedInputStream {
+  /**
+   * Files larger than this are mapped in multiple segments, since a single mapping cannot exceed
+   * {@link Integer#MAX_VALUE} bytes
+   */
+  private static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+  private final File file;
+  private final boolean deleteOnClose;
+  private final long length;
+  private final MappedByteBuffer[] segments;
+
+  public MappedFileBufferedInputStream(File file, boolean deleteOnClose) throws IOException {
+    this.file = file;
+    this.deleteOnClose = deleteOnClose;
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      this.length = channel.size();
+      this.segments =
+          new MappedByteBuffer[(int) ((length + MAX_SEGMENT_SIZE - 1) / MAX_SEGMENT_SIZE)];
+      for (int i = 0; i < segments.length; i++) {
+        long position = i * MAX_SEGMENT_SIZE;
+        segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+            Math.min(MAX_SEGMENT_SIZE, length - position));
+      }
+    }
+    in = newInputStream();
+  }
+
+  @Override
+  public OptionalLong length() throws IOException {
+    return OptionalLong.of(length);
+  }
+
+  /**
+   * Copies bytes straight from the segments into the given buffer
+   */
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    if (dst == null)
+      throw new NullPointerException();
+    return ((ByteBuffersInputStream) in).read(dst);
+  }
+
+  /**
+   * Writes the rest of the segments straight to the given channel, without copying them onto the
+   * heap
+   */
+  @Override
+  public long transferTo(WritableByteChannel out) throws IOException {
+    if (out == null)
+      throw new NullPointerException();
+    return ((ByteBuffersInputStream) in).transferTo(out);
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      super.close();
+    } finally {
+      if (deleteOnClose)
+        file.delete();
+    }
+  }
+
+  /**
+   * hook
+   */
+  @Override
+  protected InputStream newInputStream() {
+    ByteBuffer[] views = new ByteBuffer[segments.length];
+    for (int i = 0; i < segments.length; i++)
+      views[i] = ((ByteBuffer) segments[i]).duplicate();
+    return new ByteBuffersInputStream(views);
+  }
+}
@@ -22,8 +22,12 @@ package com.sigpwned.httpmodel.core.io.buffered;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.util.OptionalLong;
+import com.sigpwned.httpmodel.core.io.BufferManager;
 import com.sigpwned.httpmodel.core.io.BufferedInputStream;
 
 public class MemoryBufferedInputStream extends BufferedInputStream {
@@ -43,6 +47,12 @@ public class MemoryBufferedInputStream extends BufferedInputStream {
   private final int off;
   private final int len;
 
+  /**
+   * The manager to release {@code bytes.length} bytes to on close, or {@code null} if the memory
+   * was not reserved
+   */
+  private BufferManager manager;
+
   public MemoryBufferedInputStream(String s, Charset charset) {
     this(s.getBytes(charset));
   }
@@ -52,6 +62,15 @@ public class MemoryBufferedInputStream extends BufferedInputStream {
   }
 
   public MemoryBufferedInputStream(byte[] bytes, int off, int len) {
+    this(bytes, off, len, null);
+  }
+
+  /**
+   * Takes ownership of a reservation of {@code bytes.length} bytes from the given manager, if any,
+   * and releases it on close
+   */
+  public MemoryBufferedInputStream(byte[] bytes, int off, int len, BufferManager manager) {
+    this.manager = manager;
     this.bytes = bytes;
     this.off = off;
     this.len = len;
@@ -63,12 +82,61 @@ public class MemoryBufferedInputStream extends BufferedInputStream {
     return OptionalLong.of(len);
   }
 
+  /**
+   * Copies bytes straight from the backing array into the given buffer, direct or not
+   */
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    if (dst == null)
+      throw new NullPointerException();
+    if (!dst.hasRemaining())
+      return 0;
+    int remaining = in.available();
+    if (remaining == 0)
+      return -1;
+    int n = Math.min(remaining, dst.remaining());
+    dst.put(bytes, off + len - remaining, n);
+    in.skip(n);
+    return n;
+  }
+
+  /**
+   * Writes the rest of this stream's bytes in a single bulk write
+   */
+  @Override
+  public long transferTo(OutputStream out) throws IOException {
+    if (out == null)
+      throw new NullPointerException();
+    int remaining = in.available();
+    out.write(bytes, off + len - remaining, remaining);
+    in.skip(remaining);
+    return remaining;
+  }
+
+  /**
+   * Writes the rest of this stream's bytes in a single bulk write
+   */
+  @Override
+  public long transferTo(WritableByteChannel out) throws IOException {
+    if (out == null)
+      throw new NullPointerException();
+    int remaining = in.available();
+    ByteBuffer buffer = ByteBuffer.wrap(bytes, off + len - remaining, remaining);
+    while (buffer.hasRemaining())
+      out.write(buffer);
+    in.skip(remaining);
+    return remaining;
+  }
+
   @Override
   public void close() throws IOException {
     try {
       super.close();
     } finally {
-      // No cleanup to do
+      if (manager != null) {
+        manager.release(bytes.length);
+        manager = null;
+      }
     }
   }
 
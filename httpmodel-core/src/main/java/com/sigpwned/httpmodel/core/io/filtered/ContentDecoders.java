@@ -0,0 +1,133 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2023 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.core.io.filtered;
+
+import java.io.IOException;
+import java.io.PushbackInputStream;
+import java.util.Locale;
+import java.util.Optional;
+import com.sigpwned.httpmodel.core.io.ByteFilterSource;
+import com.sigpwned.httpmodel.core.io.InflaterPool;
+import com.sigpwned.httpmodel.core.util.MoreByteStreams;
+
+/**
+ * {@link ByteFilterSource} decoders for the standard HTTP content codings, backed by pooled
+ * inflaters. An empty entity decodes to an empty entity, since, e.g., responses to HEAD requests
+ * declare the coding of an entity they do not carry.
+ *
+ * @see <a href="https://www.rfc-editor.org/rfc/rfc9110#name-content-codings">RFC 9110 Section
+ *      8.4.1</a>
+ */
+public final class ContentDecoders {
+  public static final String GZIP = "gzip";
+
+  public static final String X_GZIP = "x-gzip";
+
+  public static final String DEFLATE = "deflate";
+
+  public static final String IDENTITY = "identity";
+
+  private ContentDecoders() {}
+
+  /**
+   * Equivalent to {@code gzip(InflaterPool.NOWRAP)}
+   */
+  public static ByteFilterSource gzip() {
+    return gzip(InflaterPool.NOWRAP);
+  }
+
+  /**
+   * @param pool a pool of inflaters for raw deflate data
+   * @return a decoder for the gzip content coding
+   */
+  public static ByteFilterSource gzip(InflaterPool pool) {
+    if (pool == null)
+      throw new NullPointerException();
+    if (!pool.isNowrap())
+      throw new IllegalArgumentException("pool must be nowrap");
+    return in -> {
+      PushbackInputStream pin = new PushbackInputStream(in, 1);
+      if (isEmpty(pin))
+        return pin;
+      return new PooledGzipInputStream(pin, pool);
+    };
+  }
+
+  /**
+   * Equivalent to {@code deflate(InflaterPool.ZLIB, InflaterPool.NOWRAP)}
+   */
+  public static ByteFilterSource deflate() {
+    return deflate(InflaterPool.ZLIB, InflaterPool.NOWRAP);
+  }
+
+  /**
+   * Returns a decoder for the deflate content coding. The coding calls for zlib data, but some
+   * servers send raw deflate data instead, so the decoder checks for a zlib header first.
+   *
+   * @param zlibPool a pool of inflaters for zlib data
+   * @param nowrapPool a pool of inflaters for raw deflate data
+   */
+  public static ByteFilterSource deflate(InflaterPool zlibPool, InflaterPool nowrapPool) {
+    if (zlibPool == null)
+      throw new NullPointerException();
+    if (nowrapPool == null)
+      throw new NullPointerException();
+    if (zlibPool.isNowrap())
+      throw new IllegalArgumentException("zlibPool must not be nowrap");
+    if (!nowrapPool.isNowrap())
+      throw new IllegalArgumentException("nowrapPool must be nowrap");
+    return in -> {
+      PushbackInputStream pin = new PushbackInputStream(in, 2);
+      byte[] header = new byte[2];
+      int nread = MoreByteStreams.read(pin, header);
+      if (nread == 0)
+        return pin;
+      pin.unread(header, 0, nread);
+      boolean zlib = nread == 2 && (header[0] & 0x0F) == 8
+          && (((header[0] & 0xFF) << 8) | (header[1] & 0xFF)) % 31 == 0;
+      return new PooledInflaterInputStream(pin, zlib ? zlibPool : nowrapPool);
+    };
+  }
+
+  /**
+   * @param coding a content coding, e.g., from a Content-Encoding header, in any case
+   * @return the default decoder for the given coding, or empty if the coding is not supported.
+   *         Note that the identity coding needs no decoder, so it is not supported here.
+   */
+  public static Optional<ByteFilterSource> forContentCoding(String coding) {
+    switch (coding.trim().toLowerCase(Locale.ROOT)) {
+      case GZIP:
+      case X_GZIP:
+        return Optional.of(gzip());
+      case DEFLATE:
+        return Optional.of(deflate());
+      default:
+        return Optional.empty();
+    }
+  }
+
+  private static boolean isEmpty(PushbackInputStream in) throws IOException {
+    int b = in.read();
+    if (b == -1)
+      return true;
+    in.unread(b);
+    return false;
+  }
+}
@@ -0,0 +1,116 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2023 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.core.io.filtered;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.zip.Deflater;
+import com.sigpwned.httpmodel.core.io.ByteFilterSource;
+import com.sigpwned.httpmodel.core.io.DeflaterPool;
+
+/**
+ * {@link ByteFilterSource} encoders for the standard HTTP content codings, backed by pooled
+ * deflaters. Each encoder compresses its input as it is read, so the compressed entity is never
+ * held in memory.
+ *
+ * @see ContentDecoders
+ */
+public final class ContentEncoders {
+  private ContentEncoders() {}
+
+  /**
+   * Equivalent to {@code gzip(Deflater.DEFAULT_COMPRESSION)}
+   */
+  public static ByteFilterSource gzip() {
+    return gzip(Deflater.DEFAULT_COMPRESSION);
+  }
+
+  /**
+   * Equivalent to {@code gzip(DeflaterPool.NOWRAP, level)}
+   */
+  public static ByteFilterSource gzip(int level) {
+    return gzip(DeflaterPool.NOWRAP, level);
+  }
+
+  /**
+   * @param pool a pool of deflaters for raw deflate data
+   * @param level the compression level, from 0 to 9, or {@link Deflater#DEFAULT_COMPRESSION}
+   * @return an encoder for the gzip content coding
+   */
+  public static ByteFilterSource gzip(DeflaterPool pool, int level) {
+    if (pool == null)
+      throw new NullPointerException();
+    if (!pool.isNowrap())
+      throw new IllegalArgumentException("pool must be nowrap");
+    checkLevel(level);
+    return in -> new PooledGzipDeflaterInputStream(in, pool, level);
+  }
+
+  /**
+   * Equivalent to {@code deflate(Deflater.DEFAULT_COMPRESSION)}
+   */
+  public static ByteFilterSource deflate() {
+    return deflate(Deflater.DEFAULT_COMPRESSION);
+  }
+
+  /**
+   * Equivalent to {@code deflate(DeflaterPool.ZLIB, level)}
+   */
+  public static ByteFilterSource deflate(int level) {
+    return deflate(DeflaterPool.ZLIB, level);
+  }
+
+  /**
+   * @param pool a pool of deflaters for zlib data, as the deflate content coding requires
+   * @param level the compression level, from 0 to 9, or {@link Deflater#DEFAULT_COMPRESSION}
+   * @return an encoder for the deflate content coding
+   */
+  public static ByteFilterSource deflate(DeflaterPool pool, int level) {
+    if (pool == null)
+      throw new NullPointerException();
+    if (pool.isNowrap())
+      throw new IllegalArgumentException("pool must not be nowrap");
+    checkLevel(level);
+    return in -> new PooledDeflaterInputStream(in, pool, level);
+  }
+
+  /**
+   * @param coding a content coding, e.g., for a Content-Encoding header, in any case
+   * @param level the compression level, from 0 to 9, or {@link Deflater#DEFAULT_COMPRESSION}
+   * @return the default encoder for the given coding, or empty if the coding is not supported.
+   *         Note that the identity coding needs no encoder, so it is not supported here.
+   */
+  public static Optional<ByteFilterSource> forContentCoding(String coding, int level) {
+    switch (coding.trim().toLowerCase(Locale.ROOT)) {
+      case ContentDecoders.GZIP:
+      case ContentDecoders.X_GZIP:
+        return Optional.of(gzip(level));
+      case ContentDecoders.DEFLATE:
+        return Optional.of(deflate(level));
+      default:
+        return Optional.empty();
+    }
+  }
+
+  private static void checkLevel(int level) {
+    if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION)
+      throw new IllegalArgumentException("invalid level " + level);
+  }
+}
@@ -0,0 +1,205 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2023 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.core.io.filtered;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+import com.sigpwned.httpmodel.core.io.ByteArrayPool;
+import com.sigpwned.httpmodel.core.io.DeflaterPool;
+
+/**
+ * Compresses the bytes of another stream as they are read, like {@link DeflaterInputStream}, but
+ * with a {@link Deflater} from a {@link DeflaterPool} and an input buffer from
+ * {@link ByteArrayPool#DEFAULT}, both of which go back to their pools when this stream is closed.
+ * Only one buffer of uncompressed input is ever held in memory. Whether the stream produces zlib or
+ * raw deflate data depends on the pool. Subclasses may wrap the compressed data in a header and
+ * trailer.
+ */
+public class PooledDeflaterInputStream extends FilterInputStream {
+  private static final byte[] EMPTY = new byte[0];
+
+  private final DeflaterPool pool;
+  protected final Deflater def;
+  private byte[] buf;
+
+  /**
+   * Bytes to emit before reading more compressed data, i.e., the header or trailer
+   */
+  private byte[] pending;
+  private int pendingPosition;
+
+  private boolean started;
+  private boolean trailed;
+  private boolean closed;
+
+  /**
+   * @param level the compression level, from 0 to 9, or {@link Deflater#DEFAULT_COMPRESSION}
+   */
+  public PooledDeflaterInputStream(InputStream in, DeflaterPool pool, int level) {
+    super(in);
+    if (in == null)
+      throw new NullPointerException();
+    this.pool = pool;
+    this.def = pool.acquire(level);
+    this.buf = ByteArrayPool.DEFAULT.acquire();
+    this.pending = EMPTY;
+    this.pendingPosition = 0;
+    this.started = false;
+    this.trailed = false;
+    this.closed = false;
+  }
+
+  @Override
+  public int read() throws IOException {
+    byte[] b = new byte[1];
+    return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (closed)
+      throw new IOException("closed");
+    if (off < 0 || len < 0 || len > b.length - off)
+      throw new IndexOutOfBoundsException();
+    if (len == 0)
+      return 0;
+
+    if (!started) {
+      started = true;
+      setPending(header());
+    }
+
+    while (true) {
+      if (pendingPosition < pending.length) {
+        int n = Math.min(len, pending.length - pendingPosition);
+        System.arraycopy(pending, pendingPosition, b, off, n);
+        pendingPosition = pendingPosition + n;
+        return n;
+      }
+
+      if (def.finished()) {
+        if (trailed)
+          return -1;
+        trailed = true;
+        setPending(trailer());
+        continue;
+      }
+
+      int n = def.deflate(b, off, len);
+      if (n > 0)
+        return n;
+
+      if (def.needsInput()) {
+        int nread = in.read(buf);
+        if (nread == -1) {
+          def.finish();
+        } else if (nread > 0) {
+          update(buf, 0, nread);
+          def.setInput(buf, 0, nread);
+        }
+      }
+    }
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    if (n <= 0L)
+      return 0L;
+    byte[] b = new byte[(int) Math.min(n, 512L)];
+    long skipped = 0L;
+    while (skipped < n) {
+      int nread = read(b, 0, (int) Math.min(n - skipped, b.length));
+      if (nread == -1)
+        break;
+      skipped = skipped + nread;
+    }
+    return skipped;
+  }
+
+  /**
+   * The compressed size is not known in advance, so this method only promises that there is no
+   * more data once the end has been reached
+   */
+  @Override
+  public int available() throws IOException {
+    if (closed)
+      throw new IOException("closed");
+    return trailed && pendingPosition == pending.length ? 0 : 1;
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  @Override
+  public synchronized void mark(int readlimit) {}
+
+  @Override
+  public synchronized void reset() throws IOException {
+    throw new IOException("mark/reset not supported");
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed)
+      return;
+    closed = true;
+    try {
+      in.close();
+    } finally {
+      pool.release(def);
+      ByteArrayPool.DEFAULT.release(buf);
+      buf = null;
+    }
+  }
+
+  /**
+   * hook
+   *
+   * @return the bytes to emit before the compressed data
+   */
+  protected byte[] header() {
+    return EMPTY;
+  }
+
+  /**
+   * hook
+   *
+   * @return the bytes to emit after the compressed data. The deflater has finished, so its
+   *         statistics, e.g., {@link Deflater#getBytesRead()}, are complete.
+   */
+  protected byte[] trailer() {
+    return EMPTY;
+  }
+
+  /**
+   * hook, called with the uncompressed data before it is compressed
+   */
+  protected void update(byte[] b, int off, int len) {}
+
+  private void setPending(byte[] pending) {
+    this.pending = pending;
+    this.pendingPosition = 0;
+  }
+}
@@ -0,0 +1,80 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2023 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.core.io.filtered;
+
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import com.sigpwned.httpmodel.core.io.DeflaterPool;
+
+/**
+ * Compresses the bytes of another stream into the gzip format as they are read, like
+ * {@link GZIPOutputStream} in reverse, but with a deflater from a {@link DeflaterPool}.
+ */
+public class PooledGzipDeflaterInputStream extends PooledDeflaterInputStream {
+  /**
+   * Magic, deflate method, no flags, no modification time, no extra flags, unknown OS
+   */
+  private static final byte[] HEADER = {(byte) 0x1F, (byte) 0x8B, 8, 0, 0, 0, 0, 0, 0, (byte) 0xFF};
+
+  private final CRC32 crc;
+
+  /**
+   * @param pool a pool of deflaters for raw deflate data, e.g., {@link DeflaterPool#NOWRAP}
+   * @param level the compression level, from 0 to 9, or {@link Deflater#DEFAULT_COMPRESSION}
+   * @throws IllegalArgumentException if the pool is not for raw deflate data
+   */
+  public PooledGzipDeflaterInputStream(InputStream in, DeflaterPool pool, int level) {
+    super(in, requireNowrap(pool), level);
+    this.crc = new CRC32();
+  }
+
+  @Override
+  protected byte[] header() {
+    return HEADER.clone();
+  }
+
+  @Override
+  protected byte[] trailer() {
+    byte[] result = new byte[8];
+    writeInt(result, 0, crc.getValue());
+    writeInt(result, 4, def.getBytesRead());
+    return result;
+  }
+
+  @Override
+  protected void update(byte[] b, int off, int len) {
+    crc.update(b, off, len);
+  }
+
+  private static void writeInt(byte[] b, int off, long value) {
+    b[off] = (byte) value;
+    b[off + 1] = (byte) (value >>> 8);
+    b[off + 2] = (byte) (value >>> 16);
+    b[off + 3] = (byte) (value >>> 24);
+  }
+
+  private static DeflaterPool requireNowrap(DeflaterPool pool) {
+    if (!pool.isNowrap())
+      throw new IllegalArgumentException("pool must be nowrap");
+    return pool;
+  }
+}
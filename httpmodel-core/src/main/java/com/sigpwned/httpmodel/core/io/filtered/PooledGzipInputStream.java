@@ -0,0 +1,194 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2023 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.core.io.filtered;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+import com.sigpwned.httpmodel.core.io.InflaterPool;
+
+/**
+ * Decodes gzip data, like {@link GZIPInputStream}, but with an inflater from an
+ * {@link InflaterPool} instead of a new one for each stream. Supports multiple concatenated gzip
+ * members and verifies the checksum and size of each one.
+ */
+public class PooledGzipInputStream extends PooledInflaterInputStream {
+  private static final int GZIP_MAGIC = 0x8b1f;
+
+  private static final int FHCRC = 2;
+  private static final int FEXTRA = 4;
+  private static final int FNAME = 8;
+  private static final int FCOMMENT = 16;
+
+  private final CRC32 crc;
+  private boolean eos;
+
+  /**
+   * Reads the header of the first gzip member right away
+   *
+   * @param pool a pool of inflaters for raw deflate data, e.g., {@link InflaterPool#NOWRAP}
+   * @throws IllegalArgumentException if the pool is not for raw deflate data
+   * @throws IOException if the stream does not start with a valid gzip header
+   */
+  public PooledGzipInputStream(InputStream in, InflaterPool pool) throws IOException {
+    super(in, requireNowrap(pool));
+    this.crc = new CRC32();
+    this.eos = false;
+    boolean successful = false;
+    try {
+      readHeader(in);
+      successful = true;
+    } finally {
+      if (!successful)
+        release();
+    }
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (eos)
+      return -1;
+    int n = super.read(b, off, len);
+    if (n == -1) {
+      if (readTrailer())
+        eos = true;
+      else
+        return read(b, off, len);
+    } else {
+      crc.update(b, off, n);
+    }
+    return n;
+  }
+
+  @Override
+  public int available() throws IOException {
+    return eos ? 0 : super.available();
+  }
+
+  /**
+   * @return the number of bytes in the header
+   */
+  private int readHeader(InputStream in) throws IOException {
+    CheckedInputStream hin = new CheckedInputStream(in, crc);
+    crc.reset();
+    if (readUShort(hin) != GZIP_MAGIC)
+      throw new ZipException("Not in GZIP format");
+    if (readUByte(hin) != 8)
+      throw new ZipException("Unsupported compression method");
+    int flags = readUByte(hin);
+    // MTIME, XFL, OS
+    skipBytes(hin, 6);
+    int n = 10;
+    if ((flags & FEXTRA) == FEXTRA) {
+      int m = readUShort(hin);
+      skipBytes(hin, m);
+      n = n + m + 2;
+    }
+    if ((flags & FNAME) == FNAME) {
+      do {
+        n = n + 1;
+      } while (readUByte(hin) != 0);
+    }
+    if ((flags & FCOMMENT) == FCOMMENT) {
+      do {
+        n = n + 1;
+      } while (readUByte(hin) != 0);
+    }
+    if ((flags & FHCRC) == FHCRC) {
+      int expected = (int) crc.getValue() & 0xFFFF;
+      if (readUShort(hin) != expected)
+        throw new ZipException("Corrupt GZIP header");
+      n = n + 2;
+    }
+    crc.reset();
+    return n;
+  }
+
+  /**
+   * Checks the trailer of the current member and starts the next member, if any
+   *
+   * @return {@code true} if this was the last member, or {@code false} otherwise
+   */
+  private boolean readTrailer() throws IOException {
+    InputStream in = this.in;
+    int n = inf.getRemaining();
+    if (n > 0) {
+      // The inflater may have consumed some of the trailer already, so read that part first
+      in = new SequenceInputStream(new ByteArrayInputStream(buf, len - n, n),
+          new FilterInputStream(in) {
+            @Override
+            public void close() {}
+          });
+    }
+    if (readUInt(in) != crc.getValue() || readUInt(in) != (inf.getBytesWritten() & 0xFFFFFFFFL))
+      throw new ZipException("Corrupt GZIP trailer");
+
+    // Anything after the trailer is another member, but only if it has a valid header
+    if (this.in.available() > 0 || n > 26) {
+      int m = 8;
+      try {
+        m = m + readHeader(in);
+      } catch (IOException e) {
+        return true;
+      }
+      inf.reset();
+      if (n > m)
+        inf.setInput(buf, len - n + m, n - m);
+      return false;
+    }
+
+    return true;
+  }
+
+  private static long readUInt(InputStream in) throws IOException {
+    long lo = readUShort(in);
+    return ((long) readUShort(in) << 16) | lo;
+  }
+
+  private static int readUShort(InputStream in) throws IOException {
+    int lo = readUByte(in);
+    return (readUByte(in) << 8) | lo;
+  }
+
+  private static int readUByte(InputStream in) throws IOException {
+    int b = in.read();
+    if (b == -1)
+      throw new EOFException();
+    return b;
+  }
+
+  private static void skipBytes(InputStream in, int n) throws IOException {
+    for (int i = 0; i < n; i++)
+      readUByte(in);
+  }
+
+  private static InflaterPool requireNowrap(InflaterPool pool) {
+    if (!pool.isNowrap())
+      throw new IllegalArgumentException("pool must be nowrap");
+    return pool;
+  }
+}
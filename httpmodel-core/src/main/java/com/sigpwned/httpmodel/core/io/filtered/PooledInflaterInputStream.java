@@ -0,0 +1,65 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2023 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.core.io.filtered;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import com.sigpwned.httpmodel.core.io.ByteArrayPool;
+import com.sigpwned.httpmodel.core.io.InflaterPool;
+
+/**
+ * An {@link InflaterInputStream} that borrows its {@link Inflater} from an {@link InflaterPool} and
+ * its input buffer from {@link ByteArrayPool#DEFAULT}, and returns both when closed. Whether the
+ * stream expects zlib or raw deflate data depends on the pool.
+ */
+public class PooledInflaterInputStream extends InflaterInputStream {
+  private final InflaterPool pool;
+  private boolean released;
+
+  public PooledInflaterInputStream(InputStream in, InflaterPool pool) {
+    super(in, pool.acquire(), 1);
+    this.pool = pool;
+    this.buf = ByteArrayPool.DEFAULT.acquire();
+    this.released = false;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      super.close();
+    } finally {
+      release();
+    }
+  }
+
+  /**
+   * Returns the inflater and buffer to their pools, if that has not happened already. This stream
+   * must not be read afterwards.
+   */
+  protected void release() {
+    if (released)
+      return;
+    released = true;
+    pool.release(inf);
+    ByteArrayPool.DEFAULT.release(buf);
+  }
+}
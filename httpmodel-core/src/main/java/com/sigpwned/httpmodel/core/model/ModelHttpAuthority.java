@@ -21,14 +21,11 @@ package com.sigpwned.httpmodel.core.model;
 
 import java.util.Objects;
 import java.util.OptionalInt;
-import java.util.regex.Pattern;
 
 /**
  * Models a URL authority, which is the host and (optional) port. Immutable.
  */
 public class ModelHttpAuthority {
-  private static final Pattern COLON = Pattern.compile(":");
-
   /**
    * Parses a valid authority, e.g., www.example.com:8080. The host should be a valid hostname, IPv4
    * address, or IPv6 address.
@@ -38,21 +35,55 @@ public class ModelHttpAuthority {
    * @see #toString()
    */
   public static ModelHttpAuthority fromString(String s) {
-    String[] parts = COLON.split(s, 2);
+    return parse(s, 0, s.length());
+  }
 
-    ModelHttpHost host = ModelHttpHost.fromString(s);
+  /**
+   * Parses the authority in {@code s[start:end)}. Any user info, e.g., the user:password@ in
+   * user:password@www.example.com, is skipped. An empty port, as in www.example.com:, is treated as
+   * absent.
+   *
+   * @throws IllegalArgumentException if the authority cannot be parsed
+   */
+  /* default */ static ModelHttpAuthority parse(String s, int start, int end) {
+    int at = s.lastIndexOf('@', end - 1);
+    if (at >= start)
+      start = at + 1;
+
+    int hostEnd;
+    if (start < end && s.charAt(start) == '[') {
+      int close = s.indexOf(']', start);
+      if (close == -1 || close >= end)
+        throw new IllegalArgumentException("IPv6 host must end with ]");
+      hostEnd = close + 1;
+      if (hostEnd < end && s.charAt(hostEnd) != ':')
+        throw new IllegalArgumentException("IPv6 host must be followed by port or nothing");
+    } else {
+      hostEnd = s.indexOf(':', start);
+      if (hostEnd == -1 || hostEnd > end)
+        hostEnd = end;
+    }
+
+    ModelHttpHost host = ModelHttpHost.fromString(s.substring(start, hostEnd));
 
-    if (parts.length == 1) {
-      return of(host, OptionalInt.empty());
+    Integer port;
+    if (hostEnd + 1 >= end) {
+      port = null;
     } else {
-      int port;
-      try {
-        port = Integer.parseInt(parts[1]);
-      } catch (NumberFormatException e) {
-        throw new IllegalArgumentException("port must be an integer");
+      int value = 0;
+      for (int i = hostEnd + 1; i < end; i++) {
+        int digit = s.charAt(i) - '0';
+        if (digit < 0 || digit > 9)
+          throw new IllegalArgumentException("port must be an integer");
+        value = value * 10 + digit;
+        if (value > MAX_PORT)
+          throw new IllegalArgumentException(
+              "port must be between " + MIN_PORT + " and " + MAX_PORT);
       }
-      return of(host, port);
+      port = value;
     }
+
+    return of(host, port);
   }
 
   public static ModelHttpAuthority of(ModelHttpHost host) {
@@ -75,6 +106,26 @@ public class ModelHttpAuthority {
 
   private final Integer port;
 
+  /**
+   * The memoized result of {@link #toString()}, or {@code null} if it has not been computed yet.
+   * Kept in a single field, so concurrent readers see either a complete memo or none.
+   */
+  private Memo memo;
+
+  /**
+   * A string form along with the version of the host it was computed from
+   */
+  private static final class Memo {
+    final int hostVersion;
+
+    final String string;
+
+    Memo(int hostVersion, String string) {
+      this.hostVersion = hostVersion;
+      this.string = string;
+    }
+  }
+
   public ModelHttpAuthority(ModelHttpHost host, Integer port) {
     if (host == null)
       throw new NullPointerException();
@@ -102,7 +153,8 @@ public class ModelHttpAuthority {
 
   @Override
   public int hashCode() {
-    return Objects.hash(host, port);
+    // Equivalent to Objects.hash(host, port), without the varargs array
+    return 31 * (31 + host.hashCode()) + Objects.hashCode(port);
   }
 
   @Override
@@ -124,9 +176,16 @@ public class ModelHttpAuthority {
    */
   @Override
   public String toString() {
-    String result = getHost().toString();
-    if (getPort() != null)
-      result = result + ":" + getPort();
-    return result;
+    if (getPort() == null)
+      return getHost().toString();
+    int hostVersion = getHost().version();
+    Memo result = memo;
+    if (result == null || result.hostVersion != hostVersion) {
+      String hostString = getHost().toString();
+      result = new Memo(hostVersion, new StringBuilder(hostString.length() + 6).append(hostString)
+          .append(':').append(getPort().intValue()).toString());
+      memo = result;
+    }
+    return result.string;
   }
 }
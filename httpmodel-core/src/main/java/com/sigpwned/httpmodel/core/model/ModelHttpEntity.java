@@ -20,7 +20,9 @@
 package com.sigpwned.httpmodel.core.model;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import com.sigpwned.httpmodel.core.io.BufferedInputStream;
+import com.sigpwned.httpmodel.core.util.MoreByteStreams;
 
 /**
  * Standalone HTTP entity without built-in lifecycle controls. Good fit for entities that don't
@@ -34,4 +36,15 @@ public interface ModelHttpEntity {
    * Prefer for underlying stream to be bufferable.
    */
   public abstract BufferedInputStream toInputStream() throws IOException;
+
+  /**
+   * Writes the content of this entity to the given stream. Does not close the stream. The default
+   * implementation copies from {@link #toInputStream()}. Implementations that can encode their
+   * content directly into the stream should override.
+   */
+  public default void writeTo(OutputStream out) throws IOException {
+    try (BufferedInputStream in = toInputStream()) {
+      MoreByteStreams.drain(in, out);
+    }
+  }
 }
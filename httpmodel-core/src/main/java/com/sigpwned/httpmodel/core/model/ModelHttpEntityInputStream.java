@@ -19,16 +19,17 @@
  */
 package com.sigpwned.httpmodel.core.model;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.Charset;
 import java.util.Optional;
+import java.util.OptionalLong;
 import com.sigpwned.httpmodel.core.io.ByteFilterSource;
 import com.sigpwned.httpmodel.core.io.EntityInputStream;
 import com.sigpwned.httpmodel.core.io.NullInputStream;
-import com.sigpwned.httpmodel.core.util.MoreByteStreams;
 import com.sigpwned.httpmodel.core.util.MoreCharStreams;
 
 public abstract class ModelHttpEntityInputStream extends EntityInputStream {
@@ -65,7 +66,12 @@ public abstract class ModelHttpEntityInputStream extends EntityInputStream {
   public abstract Optional<ModelHttpMediaType> getContentType();
 
   public byte[] toByteArray() throws IOException {
-    return MoreByteStreams.toByteArray(this);
+    OptionalLong length = length();
+    ByteArrayOutputStream out = new ByteArrayOutputStream(
+        length.isPresent() && length.getAsLong() < Integer.MAX_VALUE - 8 ? (int) length.getAsLong()
+            : 32);
+    transferTo(out);
+    return out.toByteArray();
   }
 
   public Reader readChars(Charset defaultCharset) throws IOException {
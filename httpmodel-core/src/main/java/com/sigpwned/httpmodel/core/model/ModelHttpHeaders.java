@@ -22,14 +22,15 @@ package com.sigpwned.httpmodel.core.model;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static java.util.Collections.unmodifiableList;
-import static java.util.stream.Collectors.joining;
-import static java.util.stream.Collectors.toList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.function.Predicate;
+import java.util.OptionalLong;
 import java.util.stream.Stream;
 import com.sigpwned.httpmodel.core.model.ModelHttpHeaders.Header;
 import com.sigpwned.httpmodel.core.util.ModelHttpHeaderNames;
@@ -45,7 +46,10 @@ public class ModelHttpHeaders implements Iterable<Header> {
   }
 
   /**
-   * Models an HTTP header. Header names are lowercased automatically.
+   * Models an HTTP header. Header names are lowercased automatically, and well-known names are
+   * replaced with the matching {@link ModelHttpHeaderNames} constant.
+   *
+   * @see ModelHttpHeaderNames#canonicalize(String)
    */
   public static class Header {
     public static Header of(String name, String value) {
@@ -56,11 +60,19 @@ public class ModelHttpHeaders implements Iterable<Header> {
     private final String value;
 
     public Header(String name, String value) {
+      this(name, value, false);
+    }
+
+    /**
+     * @param canonical {@code true} for headers materialized from {@link ModelHttpHeaders} storage,
+     *        whose names are already canonical, so canonicalizing them again can be skipped
+     */
+    private Header(String name, String value, boolean canonical) {
       if (name == null)
         throw new NullPointerException();
       if (value == null)
         throw new NullPointerException();
-      this.name = name.toLowerCase();
+      this.name = canonical ? name : ModelHttpHeaderNames.canonicalize(name);
       this.value = value;
     }
 
@@ -101,82 +113,240 @@ public class ModelHttpHeaders implements Iterable<Header> {
     }
   }
 
-  private final List<ModelHttpHeaders.Header> headers;
+  private static final int MIN_CAPACITY = 8;
+
+  /**
+   * The header names and values, alternating, by slot. The name of the header in slot i is at
+   * {@code 2*i} and its value is at {@code 2*i+1}. Names are canonical. Headers occupy the slots
+   * from {@link #start} to {@link #end} in order, and all other slots are {@code null}. Storing
+   * strings directly instead of {@link Header} objects keeps the per-message garbage down, since
+   * most messages are only ever accessed by name.
+   *
+   * <p>
+   * Removing a header leaves a tombstone, i.e., a slot whose name is {@code null}, so that no other
+   * header moves and the positions in {@link #index} stay valid. Tombstones are compacted away once
+   * they outnumber the headers. Adding a header first takes the slot before {@link #start}, so it
+   * does not move the other headers, either.
+   * </p>
+   */
+  private String[] namesAndValues;
+
+  /**
+   * The first slot in use
+   */
+  private int start;
+
+  /**
+   * One past the last slot in use
+   */
+  private int end;
+
+  /**
+   * The number of headers, not counting tombstones
+   */
+  private int size;
+
+  /**
+   * Maps each canonical header name to the slots of the headers with that name, in ascending
+   * order. Kept in sync with {@link #namesAndValues} by every mutator so that lookups and removals
+   * by name do not have to scan all the headers.
+   */
+  private Map<String, Positions> index;
+
+  /**
+   * Whether {@link #namesAndValues} and {@link #index} may be shared with another instance. Copies
+   * share storage until one side is modified, at which point that side takes a private copy.
+   */
+  private boolean shared;
+
+  /**
+   * The {@link Header} objects for {@link #getHeaders()}, materialized on demand and dropped on
+   * every mutation.
+   */
+  private List<Header> headers;
+
+  /**
+   * The parsed value of the first {@code Content-Type} header, or {@code null} if it has not been
+   * parsed yet. Dropped by every mutation that adds or removes a {@code Content-Type} header.
+   */
+  private Optional<ModelHttpMediaType> contentType;
 
   public ModelHttpHeaders() {
     this(emptyList());
   }
 
   public ModelHttpHeaders(ModelHttpHeaders that) {
-    this(that.getHeaders());
+    share(that);
   }
 
   public ModelHttpHeaders(List<Header> headers) {
     if (headers == null)
       throw new NullPointerException();
-    this.headers = new ArrayList<>(headers);
+    this.namesAndValues = new String[2 * Math.max(headers.size(), MIN_CAPACITY)];
+    this.start = 0;
+    this.end = 0;
+    this.size = 0;
+    this.index = new HashMap<>();
+    for (Header header : headers)
+      addHeaderLast(header);
   }
 
   /* default */ ModelHttpHeaders(ModelHttpHeadersBuilder that) {
-    this(that.headers());
+    this(that.build());
   }
 
   /**
    * @return the headers
    */
   public List<Header> getHeaders() {
-    return unmodifiableList(headers);
+    if (headers == null) {
+      List<Header> result = new ArrayList<>(size);
+      for (int i = start; i < end; i++)
+        if (nameAt(i) != null)
+          result.add(new Header(nameAt(i), valueAt(i), true));
+      headers = unmodifiableList(result);
+    }
+    return headers;
   }
 
   public Optional<Header> findFirstHeaderByName(String name) {
-    return stream().filter(h -> h.getName().equalsIgnoreCase(name)).findFirst();
+    Positions positions = index.get(indexKey(name));
+    if (positions == null)
+      return Optional.empty();
+    int position = positions.get(0);
+    return Optional.of(new Header(nameAt(position), valueAt(position), true));
   }
 
   public Optional<String> findFirstHeaderValueByName(String name) {
-    return findFirstHeaderByName(name).map(Header::getValue);
+    Positions positions = index.get(indexKey(name));
+    if (positions == null)
+      return Optional.empty();
+    return Optional.of(valueAt(positions.get(0)));
   }
 
   public List<Header> findAllHeadersByName(String name) {
-    return findAllHeadersByNameAsStream(name).collect(toList());
+    Positions positions = index.get(indexKey(name));
+    if (positions == null)
+      return new ArrayList<>();
+    List<Header> result = new ArrayList<>(positions.size());
+    for (int i = 0; i < positions.size(); i++) {
+      int position = positions.get(i);
+      result.add(new Header(nameAt(position), valueAt(position), true));
+    }
+    return result;
   }
 
   public List<String> findAllHeaderValuesByName(String name) {
-    return findAllHeadersByNameAsStream(name).map(Header::getValue).collect(toList());
+    Positions positions = index.get(indexKey(name));
+    if (positions == null)
+      return new ArrayList<>();
+    List<String> result = new ArrayList<>(positions.size());
+    for (int i = 0; i < positions.size(); i++)
+      result.add(valueAt(positions.get(i)));
+    return result;
   }
 
-  private Stream<Header> findAllHeadersByNameAsStream(String name) {
-    return stream().filter(h -> h.getName().equalsIgnoreCase(name));
+  /**
+   * Returns the parsed value of the first {@code Content-Type} header. The result is memoized until
+   * a {@code Content-Type} header is added or removed, so repeated calls do not re-parse.
+   *
+   * @throws IllegalArgumentException if the header value is not a valid media type
+   */
+  /* default */ Optional<ModelHttpMediaType> findContentType() {
+    if (contentType == null)
+      contentType = findFirstHeaderValueByName(ModelHttpHeaderNames.CONTENT_TYPE)
+          .map(ModelHttpMediaType::fromString);
+    return contentType;
+  }
+
+  /**
+   * Returns the value of the {@code Content-Length} header, if all {@code Content-Length} headers
+   * agree on a single valid value. Otherwise, returns empty.
+   */
+  /* default */ OptionalLong findContentLength() {
+    long result = -1L;
+    for (String value : findAllHeaderValuesByName(ModelHttpHeaderNames.CONTENT_LENGTH)) {
+      long length = parseContentLength(value.trim());
+      if (length == -1L || (result != -1L && length != result))
+        return OptionalLong.empty();
+      result = length;
+    }
+    return result == -1L ? OptionalLong.empty() : OptionalLong.of(result);
+  }
+
+  /**
+   * @return the given string as a non-negative decimal number, or -1 if it is not one
+   */
+  private static long parseContentLength(String s) {
+    // Eighteen digits cannot overflow a long
+    if (s.isEmpty() || s.length() > 18)
+      return -1L;
+    long result = 0L;
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      if (c < '0' || c > '9')
+        return -1L;
+      result = 10L * result + (c - '0');
+    }
+    return result;
   }
 
   public ModelHttpHeaders addHeaderFirst(String name, String value) {
-    return addHeaderFirst(new ModelHttpHeaders.Header(name, value));
+    if (name == null)
+      throw new NullPointerException();
+    if (value == null)
+      throw new NullPointerException();
+    insertFirst(ModelHttpHeaderNames.canonicalize(name), value);
+    return this;
   }
 
   public ModelHttpHeaders addHeaderFirst(ModelHttpHeaders.Header header) {
     if (header == null)
       throw new NullPointerException();
-    headers.add(0, header);
+    insertFirst(header.getName(), header.getValue());
     return this;
   }
 
   public ModelHttpHeaders addHeaderLast(String name, String value) {
-    return addHeaderLast(new ModelHttpHeaders.Header(name, value));
+    if (name == null)
+      throw new NullPointerException();
+    if (value == null)
+      throw new NullPointerException();
+    insertLast(ModelHttpHeaderNames.canonicalize(name), value);
+    return this;
   }
 
   public ModelHttpHeaders addHeaderLast(ModelHttpHeaders.Header header) {
     if (header == null)
       throw new NullPointerException();
-    headers.add(headers.size(), header);
+    insertLast(header.getName(), header.getValue());
     return this;
   }
 
   public ModelHttpHeaders removeFirstHeader(String name) {
-    removeHeaderMatching(h -> h.getName().equalsIgnoreCase(name), true);
+    String key = indexKey(name);
+    if (index.containsKey(key)) {
+      unshare();
+      invalidate(key);
+      Positions positions = index.get(key);
+      bury(positions.removeFirst());
+      if (positions.size() == 0)
+        index.remove(key);
+      removed(1);
+    }
     return this;
   }
 
   public ModelHttpHeaders removeAllHeaders(String name) {
-    removeHeaderMatching(h -> h.getName().equalsIgnoreCase(name), false);
+    String key = indexKey(name);
+    if (index.containsKey(key)) {
+      unshare();
+      invalidate(key);
+      Positions positions = index.remove(key);
+      for (int i = 0; i < positions.size(); i++)
+        bury(positions.get(i));
+      removed(positions.size());
+    }
     return this;
   }
 
@@ -204,21 +374,236 @@ public class ModelHttpHeaders implements Iterable<Header> {
   }
 
   public void clear() {
-    headers.clear();
+    if (shared) {
+      namesAndValues = new String[2 * MIN_CAPACITY];
+      index = new HashMap<>();
+      shared = false;
+    } else {
+      Arrays.fill(namesAndValues, 2 * start, 2 * end, null);
+      index.clear();
+    }
+    start = 0;
+    end = 0;
+    size = 0;
+    headers = null;
+    contentType = null;
   }
 
   public boolean isEmpty() {
-    return headers.isEmpty();
+    return size == 0;
+  }
+
+  /**
+   * Replaces the contents of this object with the contents of the given object. The two objects
+   * share storage until one of them is modified.
+   */
+  /* default */ void assign(ModelHttpHeaders that) {
+    if (that != this)
+      share(that);
   }
 
-  private void removeHeaderMatching(Predicate<ModelHttpHeaders.Header> test, boolean firstOnly) {
-    Iterator<ModelHttpHeaders.Header> iterator = headers.iterator();
-    while (iterator.hasNext()) {
-      if (test.test(iterator.next())) {
-        iterator.remove();
-        if (firstOnly)
-          break;
+  private void share(ModelHttpHeaders that) {
+    that.shared = true;
+    this.namesAndValues = that.namesAndValues;
+    this.start = that.start;
+    this.end = that.end;
+    this.size = that.size;
+    this.index = that.index;
+    this.headers = that.headers;
+    this.contentType = that.contentType;
+    this.shared = true;
+  }
+
+  /**
+   * Takes a private copy of the storage if it may be shared with another instance. Called by every
+   * mutator before it modifies {@link #namesAndValues} or {@link #index}.
+   */
+  private void unshare() {
+    if (shared) {
+      String[] oldNamesAndValues = namesAndValues;
+      int oldStart = start;
+      int oldEnd = end;
+      namesAndValues = new String[2 * Math.max(size, MIN_CAPACITY)];
+      index = new HashMap<>();
+      start = 0;
+      end = 0;
+      for (int i = oldStart; i < oldEnd; i++) {
+        String name = oldNamesAndValues[2 * i];
+        if (name != null) {
+          namesAndValues[2 * end] = name;
+          namesAndValues[2 * end + 1] = oldNamesAndValues[2 * i + 1];
+          index.computeIfAbsent(name, k -> new Positions()).add(end);
+          end = end + 1;
+        }
       }
+      shared = false;
+    }
+  }
+
+  private String nameAt(int slot) {
+    return namesAndValues[2 * slot];
+  }
+
+  private String valueAt(int slot) {
+    return namesAndValues[2 * slot + 1];
+  }
+
+  private void insertFirst(String canonicalName, String value) {
+    unshare();
+    invalidate(canonicalName);
+    if (start == 0)
+      relayout(size + 1, true);
+    start = start - 1;
+    namesAndValues[2 * start] = canonicalName;
+    namesAndValues[2 * start + 1] = value;
+    size = size + 1;
+    headers = null;
+    index.computeIfAbsent(canonicalName, k -> new Positions()).addFirst(start);
+  }
+
+  private void insertLast(String canonicalName, String value) {
+    unshare();
+    invalidate(canonicalName);
+    if (2 * end == namesAndValues.length)
+      relayout(size + 1, false);
+    int slot = end;
+    namesAndValues[2 * slot] = canonicalName;
+    namesAndValues[2 * slot + 1] = value;
+    end = end + 1;
+    size = size + 1;
+    headers = null;
+    index.computeIfAbsent(canonicalName, k -> new Positions()).add(slot);
+  }
+
+  /**
+   * Drops memoized values that depend on headers with the given canonical name
+   */
+  private void invalidate(String canonicalName) {
+    if (canonicalName == ModelHttpHeaderNames.CONTENT_TYPE)
+      contentType = null;
+  }
+
+  /**
+   * Turns the given slot into a tombstone. Does not update {@link #index}.
+   */
+  private void bury(int slot) {
+    namesAndValues[2 * slot] = null;
+    namesAndValues[2 * slot + 1] = null;
+  }
+
+  /**
+   * Accounts for the given number of headers just turned into tombstones, and compacts the
+   * tombstones away once they outnumber the headers, so that compaction is amortized over the
+   * removals that made it necessary
+   */
+  private void removed(int count) {
+    size = size - count;
+    headers = null;
+    while (start < end && nameAt(start) == null)
+      start = start + 1;
+    while (end > start && nameAt(end - 1) == null)
+      end = end - 1;
+    if (start == end) {
+      start = 0;
+      end = 0;
+    } else if (end - start - size > Math.max(size, MIN_CAPACITY)) {
+      relayout(size, false);
+    }
+  }
+
+  /**
+   * Moves the headers, without tombstones, into storage with room for at least {@code capacity}
+   * headers, leaving free slots at the front if {@code roomAtFront} and at the end otherwise.
+   * Updates the slots in {@link #index} in place, reusing its {@link Positions} objects. Storage
+   * grows geometrically, so the cost is amortized over the insertions or removals that lead here.
+   */
+  private void relayout(int capacity, boolean roomAtFront) {
+    int slots = Math.max(2 * capacity, MIN_CAPACITY);
+    String[] target = 2 * slots <= namesAndValues.length ? namesAndValues : new String[2 * slots];
+
+    // Copy the headers to the front of the target, skipping tombstones. Within the same array, this
+    // only ever moves headers left, so nothing is overwritten before it is read.
+    int write = 0;
+    for (int read = start; read < end; read++) {
+      String name = nameAt(read);
+      if (name != null) {
+        target[2 * write] = name;
+        target[2 * write + 1] = valueAt(read);
+        write = write + 1;
+      }
+    }
+    if (target == namesAndValues)
+      Arrays.fill(target, 2 * size, 2 * end, null);
+
+    int offset = 0;
+    if (roomAtFront) {
+      int slack = target.length / 2 - size;
+      offset = slack - slack / 2;
+      System.arraycopy(target, 0, target, 2 * offset, 2 * size);
+      Arrays.fill(target, 0, 2 * Math.min(offset, size), null);
+    }
+
+    namesAndValues = target;
+    start = offset;
+    end = offset + size;
+    for (Positions positions : index.values())
+      positions.clear();
+    for (int i = start; i < end; i++)
+      index.get(nameAt(i)).add(i);
+  }
+
+
+  /**
+   * Header names are stored in canonical form, so lookups use the canonical name as the index key.
+   * For well-known names, this makes the key comparison a reference check.
+   */
+  private static String indexKey(String name) {
+    return name != null ? ModelHttpHeaderNames.canonicalize(name) : null;
+  }
+
+  /**
+   * A growable list of primitive positions, to avoid boxing in {@link ModelHttpHeaders#index}.
+   */
+  private static final class Positions {
+    private int[] values;
+    private int size;
+
+    public Positions() {
+      this.values = new int[2];
+      this.size = 0;
+    }
+
+    public void add(int value) {
+      if (size == values.length)
+        values = Arrays.copyOf(values, 2 * values.length);
+      values[size++] = value;
+    }
+
+    public void addFirst(int value) {
+      if (size == values.length)
+        values = Arrays.copyOf(values, 2 * values.length);
+      System.arraycopy(values, 0, values, 1, size);
+      values[0] = value;
+      size = size + 1;
+    }
+
+    public int removeFirst() {
+      int result = values[0];
+      size = size - 1;
+      System.arraycopy(values, 1, values, 0, size);
+      return result;
+    }
+
+    public int get(int i) {
+      return values[i];
+    }
+
+    public int size() {
+      return size;
+    }
+
+    public void clear() {
+      size = 0;
     }
   }
 
@@ -226,9 +611,17 @@ public class ModelHttpHeaders implements Iterable<Header> {
     return new ModelHttpHeadersBuilder(this);
   }
 
+  /**
+   * Equivalent to {@code Objects.hash(getHeaders())}, but computed without materializing any
+   * {@link Header} objects.
+   */
   @Override
   public int hashCode() {
-    return Objects.hash(headers);
+    int result = 1;
+    for (int i = start; i < end; i++)
+      if (nameAt(i) != null)
+        result = 31 * result + 31 * (31 + nameAt(i).hashCode()) + valueAt(i).hashCode();
+    return 31 + result;
   }
 
   @Override
@@ -240,12 +633,33 @@ public class ModelHttpHeaders implements Iterable<Header> {
     if (getClass() != obj.getClass())
       return false;
     ModelHttpHeaders other = (ModelHttpHeaders) obj;
-    return Objects.equals(headers, other.headers);
+    if (size != other.size)
+      return false;
+    // Walk the headers of both, skipping tombstones
+    int j = other.start;
+    for (int i = start; i < end; i++) {
+      if (nameAt(i) == null)
+        continue;
+      while (other.nameAt(j) == null)
+        j = j + 1;
+      if (!nameAt(i).equals(other.nameAt(j)) || !valueAt(i).equals(other.valueAt(j)))
+        return false;
+      j = j + 1;
+    }
+    return true;
   }
 
   @Override
   public String toString() {
-    return stream().map(Objects::toString).collect(joining("\n"));
+    StringBuilder result = new StringBuilder();
+    for (int i = start; i < end; i++) {
+      if (nameAt(i) == null)
+        continue;
+      if (result.length() != 0)
+        result.append('\n');
+      result.append(nameAt(i)).append(": ").append(valueAt(i));
+    }
+    return result.toString();
   }
 
   @Override
@@ -254,6 +668,6 @@ public class ModelHttpHeaders implements Iterable<Header> {
   }
 
   public Stream<Header> stream() {
-    return headers.stream();
+    return getHeaders().stream();
   }
 }
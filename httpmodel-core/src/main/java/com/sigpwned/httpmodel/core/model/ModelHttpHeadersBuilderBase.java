@@ -32,11 +32,11 @@ public abstract class ModelHttpHeadersBuilderBase<BuilderT extends ModelHttpHead
   }
 
   public ModelHttpHeadersBuilderBase(BuilderT that) {
-    this(that.headers());
+    this(that.build());
   }
 
   public ModelHttpHeadersBuilderBase(ModelHttpHeaders that) {
-    this(that.getHeaders());
+    this.building = new ModelHttpHeaders(that);
   }
 
   public ModelHttpHeadersBuilderBase(List<Header> headers) {
@@ -113,9 +113,7 @@ public abstract class ModelHttpHeadersBuilderBase<BuilderT extends ModelHttpHead
 
   @SuppressWarnings("unchecked")
   public BuilderT assign(ModelHttpHeaders value) {
-    building.clear();
-    for (Header header : value)
-      building.addHeaderLast(header);
+    building.assign(value);
     return (BuilderT) this;
   }
 
@@ -32,11 +32,14 @@ public class ModelHttpHeadersChildBuilderBase<ParentT, BuilderT extends ModelHtt
   }
 
   public ModelHttpHeadersChildBuilderBase(ParentT parent, BuilderT that) {
-    this(parent, that.headers());
+    this(parent, that.build());
   }
 
   public ModelHttpHeadersChildBuilderBase(ParentT parent, ModelHttpHeaders that) {
-    this(parent, that.getHeaders());
+    super(that);
+    if (parent == null)
+      throw new NullPointerException();
+    this.parent = parent;
   }
 
   public ModelHttpHeadersChildBuilderBase(ParentT parent, List<Header> headers) {
@@ -19,10 +19,13 @@
  */
 package com.sigpwned.httpmodel.core.model;
 
+import java.net.Inet4Address;
+import java.net.Inet6Address;
 import java.util.Objects;
 import com.sigpwned.httpmodel.core.model.host.ModelHttpHostnameHost;
 import com.sigpwned.httpmodel.core.model.host.ModelHttpIpV4Host;
 import com.sigpwned.httpmodel.core.model.host.ModelHttpIpV6Host;
+import com.sigpwned.httpmodel.core.util.MoreInetAddresses;
 
 /**
  * Models an HTTP URL host. Must be one of hostname, IPv4 address host, or IPv6 address host.
@@ -41,36 +44,24 @@ public abstract class ModelHttpHost {
    * @see ModelHttpIpV6Host#fromString(String)
    */
   public static ModelHttpHost fromString(String s) {
-    ModelHttpHost result = null;
-
-    if (result == null) {
-      try {
-        result = ModelHttpIpV6Host.fromString(s);
-      } catch (IllegalArgumentException e) {
-        // This is fine. It's just not an IPv6 address.
+    // Classify by the first character, so that each candidate form is parsed at most once and no
+    // exceptions are thrown unless the string is invalid.
+    if (!s.isEmpty() && s.charAt(0) == '[') {
+      if (s.length() >= 2 && s.charAt(s.length() - 1) == ']') {
+        Inet6Address address = MoreInetAddresses.parseInet6Address(s.substring(1, s.length() - 1));
+        if (address != null)
+          return ModelHttpIpV6Host.of(address);
       }
+    } else {
+      // Strings of digits and dots that are not valid IPv4 addresses are still valid hostnames
+      Inet4Address address = MoreInetAddresses.parseInet4Address(s);
+      if (address != null)
+        return ModelHttpIpV4Host.of(address);
+      if (ModelHttpHostnameHost.isValidHostname(s))
+        return ModelHttpHostnameHost.of(s);
     }
 
-    if (result == null) {
-      try {
-        result = ModelHttpIpV4Host.fromString(s);
-      } catch (IllegalArgumentException e) {
-        // This is fine. It's just not an IPv4 address.
-      }
-    }
-
-    if (result == null) {
-      try {
-        result = ModelHttpHostnameHost.fromString(s);
-      } catch (IllegalArgumentException e) {
-        // This is fine. It's just not a hostname address.
-      }
-    }
-
-    if (result == null)
-      throw new IllegalArgumentException("must be a valid hostname, IPv4 host, or IPv6 host");
-
-    return result;
+    throw new IllegalArgumentException("must be a valid hostname, IPv4 host, or IPv6 host");
   }
 
   public static enum Type {
@@ -79,10 +70,27 @@ public abstract class ModelHttpHost {
 
   private final Type type;
 
+  /**
+   * Counts modifications, so that objects that memoize values derived from this host, e.g., the
+   * string form of a {@link ModelHttpAuthority}, can tell when to compute them again
+   */
+  private int version;
+
   public ModelHttpHost(Type type) {
     this.type = type;
   }
 
+  /**
+   * Records a modification. Subclasses call this from their setters.
+   */
+  protected void modified() {
+    version = version + 1;
+  }
+
+  /* default */ int version() {
+    return version;
+  }
+
   /**
    * @return the type
    */
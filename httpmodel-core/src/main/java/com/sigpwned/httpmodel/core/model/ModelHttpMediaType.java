@@ -25,6 +25,8 @@ import java.util.AbstractMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 
 /**
@@ -48,13 +50,53 @@ public class ModelHttpMediaType {
   private static final Pattern EQUALS = Pattern.compile("=");
 
   /**
-   * Parses a valid mime type, e.g., text/plain; charset=utf-8.
+   * The most entries {@link #PARSED} and {@link #INTERNED} will hold. Applications typically see a
+   * handful of distinct media types, so this is generous. When a cache fills up, it is cleared and
+   * starts over, which bounds memory even if an attacker sends many distinct values. Constants
+   * live in {@link #CONSTANTS} instead, so they stay canonical.
+   */
+  private static final int MAX_CACHE_SIZE = 256;
+
+  /**
+   * Maps raw strings to the media types {@link #fromString(String)} parsed them into
+   */
+  private static final ConcurrentMap<String, ModelHttpMediaType> PARSED =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Canonical instances returned by {@link #of(String, String, Charset)}, so that media types
+   * compare equal to the constants in {@code ModelHttpMediaTypes} by identity
+   */
+  private static final ConcurrentMap<ModelHttpMediaType, ModelHttpMediaType> INTERNED =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Canonical instances registered by {@link #constant(String, String)}, e.g., the constants in
+   * {@code ModelHttpMediaTypes}. Unlike {@link #INTERNED}, this map is never cleared.
+   */
+  private static final ConcurrentMap<ModelHttpMediaType, ModelHttpMediaType> CONSTANTS =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Parses a valid mime type, e.g., text/plain; charset=utf-8. Results are cached by the given
+   * string and interned, so parsing a common media type is usually a single map lookup.
    *
    * @throws IllegalArgumentException if the MIME type cannot be parsed
    *
    * @see #toString()
    */
   public static ModelHttpMediaType fromString(String s) {
+    ModelHttpMediaType result = PARSED.get(s);
+    if (result == null) {
+      result = parse(s);
+      if (PARSED.size() >= MAX_CACHE_SIZE)
+        PARSED.clear();
+      PARSED.put(s, result);
+    }
+    return result;
+  }
+
+  private static ModelHttpMediaType parse(String s) {
     String[] parts = SEMICOLON.split(s.trim(), 2);
 
     String typesString = parts[0];
@@ -95,11 +137,32 @@ public class ModelHttpMediaType {
   }
 
   public static ModelHttpMediaType of(String type, String subtype) {
-    return new ModelHttpMediaType(type, subtype);
+    return of(type, subtype, null);
   }
 
   public static ModelHttpMediaType of(String type, String subtype, Charset charset) {
-    return new ModelHttpMediaType(type, subtype, charset);
+    ModelHttpMediaType result = new ModelHttpMediaType(type, subtype, charset);
+    ModelHttpMediaType interned = CONSTANTS.get(result);
+    if (interned == null)
+      interned = INTERNED.get(result);
+    if (interned == null) {
+      if (INTERNED.size() >= MAX_CACHE_SIZE)
+        INTERNED.clear();
+      interned = INTERNED.putIfAbsent(result, result);
+    }
+    return interned != null ? interned : result;
+  }
+
+  /**
+   * Returns the canonical instance of the given media type, like {@link #of(String, String)}, and
+   * keeps it canonical for the life of the JVM. For declaring constants, e.g., in
+   * {@code ModelHttpMediaTypes}, which must stay identical to the results of {@code of} even after
+   * the bounded cache of other media types starts over.
+   */
+  public static ModelHttpMediaType constant(String type, String subtype) {
+    ModelHttpMediaType result = of(type, subtype);
+    ModelHttpMediaType existing = CONSTANTS.putIfAbsent(result, result);
+    return existing != null ? existing : result;
   }
 
   private static boolean isWildcard(String s) {
@@ -164,6 +227,8 @@ public class ModelHttpMediaType {
    * Considers subtype and type only. Parameters are ignored.
    */
   public boolean isCompatible(ModelHttpMediaType that) {
+    if (this == that)
+      return true;
     if (this.getType().equals(that.getType()) || isWildcard(this.getType())
         || isWildcard(that.getType())) {
       if (this.getSubtype().equals(that.getSubtype()) || isWildcard(this.getSubtype())
@@ -0,0 +1,124 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.core.model;
+
+import static java.util.Collections.unmodifiableMap;
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Storage for the application properties carried by requests, request heads, and their builders.
+ * Copies share the backing map until one side is modified, at which point that side takes a private
+ * copy, so converting between these objects does not copy properties that are never changed.
+ */
+/* default */ final class ModelHttpProperties {
+  private Map<String, Object> properties;
+
+  /**
+   * Whether {@link #properties} may be shared with another instance
+   */
+  private boolean shared;
+
+  /**
+   * A live, read-only view of the current properties, which remains valid when this object takes a
+   * private copy of its storage.
+   */
+  private final Map<String, Object> view;
+
+  public ModelHttpProperties() {
+    this(new HashMap<>(), false);
+  }
+
+  public ModelHttpProperties(Map<String, Object> properties) {
+    this(new HashMap<>(properties), false);
+  }
+
+  private ModelHttpProperties(Map<String, Object> properties, boolean shared) {
+    this.properties = properties;
+    this.shared = shared;
+    this.view = new View();
+  }
+
+  /**
+   * @return a new instance with the same properties, sharing storage with this one
+   */
+  public ModelHttpProperties copy() {
+    shared = true;
+    return new ModelHttpProperties(properties, true);
+  }
+
+  public Optional<Object> get(String name) {
+    return Optional.ofNullable(properties.get(name));
+  }
+
+  public void set(String name, Object value) {
+    if (value != null) {
+      if (value != properties.get(name)) {
+        unshare();
+        properties.put(name, value);
+      }
+    } else {
+      if (properties.containsKey(name)) {
+        unshare();
+        properties.remove(name);
+      }
+    }
+  }
+
+  public Set<String> names() {
+    return view.keySet();
+  }
+
+  public Map<String, Object> asMap() {
+    return view;
+  }
+
+  private void unshare() {
+    if (shared) {
+      properties = new HashMap<>(properties);
+      shared = false;
+    }
+  }
+
+  private final class View extends AbstractMap<String, Object> {
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+      return unmodifiableMap(properties).entrySet();
+    }
+
+    @Override
+    public Object get(Object key) {
+      return properties.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return properties.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+      return properties.size();
+    }
+  }
+}
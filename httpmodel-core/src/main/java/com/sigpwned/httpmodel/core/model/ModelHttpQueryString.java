@@ -23,11 +23,13 @@ import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static java.util.Collections.unmodifiableList;
-import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toCollection;
 import static java.util.stream.Collectors.toList;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Predicate;
@@ -49,6 +51,12 @@ public class ModelHttpQueryString implements Iterable<Parameter> {
 
   private static final Pattern EQUALS = Pattern.compile("=");
 
+  /**
+   * Query strings with fewer parameters than this are searched with a linear scan, which is faster
+   * than maintaining an index at that size.
+   */
+  private static final int INDEX_THRESHOLD = 16;
+
   /**
    * Models a single query parameter, e.g., alpha=bravo
    */
@@ -128,15 +136,23 @@ public class ModelHttpQueryString implements Iterable<Parameter> {
      */
     @Override
     public String toString() {
-      String result = ModelHttpEncodings.urlencode(getName());
+      if (!getValue().isPresent())
+        return ModelHttpEncodings.urlencode(getName());
+      return appendTo(new StringBuilder()).toString();
+    }
+
+    private StringBuilder appendTo(StringBuilder out) {
+      ModelHttpEncodings.urlencode(getName(), out);
       if (getValue().isPresent())
-        result = result + "=" + ModelHttpEncodings.urlencode(getValue().get());
-      return result;
+        ModelHttpEncodings.urlencode(getValue().get(), out.append('='));
+      return out;
     }
   }
 
   /**
-   * Parses a valid query string.
+   * Parses a valid query string. Only the percent encoding is validated up front. The string is
+   * split into parameters the first time they are accessed, and {@link #toString()} returns the
+   * given string as-is until this object is modified.
    *
    * @throws IllegalArgumentException if the query string is not valid
    *
@@ -144,8 +160,10 @@ public class ModelHttpQueryString implements Iterable<Parameter> {
    * @see #toString()
    */
   public static ModelHttpQueryString fromString(String s) {
-    return ModelHttpQueryString.of(AMPERSAND.splitAsStream(s).filter(nv -> !nv.isEmpty())
-        .map(Parameter::fromString).collect(toList()));
+    if (s == null)
+      throw new NullPointerException();
+    validatePercentEncoding(s);
+    return new ModelHttpQueryString(s);
   }
 
   public static ModelHttpQueryString of(Parameter... parameters) {
@@ -156,31 +174,114 @@ public class ModelHttpQueryString implements Iterable<Parameter> {
     return new ModelHttpQueryString(parameters);
   }
 
-  private final List<Parameter> parameters;
+  /**
+   * Throws the same exceptions {@link ModelHttpEncodings#urldecode(String)} would throw for any
+   * part of the given string, without decoding anything.
+   */
+  private static void validatePercentEncoding(String s) {
+    for (int i = s.indexOf('%'); i != -1; i = s.indexOf('%', i + 3)) {
+      if (i + 3 > s.length())
+        throw new IllegalArgumentException("incomplete percent encoding");
+      if (!isHexDigit(s.charAt(i + 1)) || !isHexDigit(s.charAt(i + 2)))
+        throw new IllegalArgumentException("invalid hex value");
+    }
+  }
+
+  private static boolean isHexDigit(char c) {
+    return (c >= '0' && c <= '9') || (c >= 'A' && c <= 'F') || (c >= 'a' && c <= 'f');
+  }
+
+  private static List<Parameter> parse(String s) {
+    return AMPERSAND.splitAsStream(s).filter(nv -> !nv.isEmpty()).map(Parameter::fromString)
+        .collect(toCollection(ArrayList::new));
+  }
+
+  /**
+   * The parameters, or {@code null} if {@link #raw} has not been parsed yet. Always access through
+   * {@link #parameters()}. Volatile, and only ever assigned a complete list, so concurrent readers
+   * that parse lazily never see a partial result.
+   */
+  private volatile List<Parameter> parameters;
+
+  /**
+   * The encoded string this object was parsed from, or {@code null} if it was not parsed from a
+   * string or has been modified since
+   */
+  private String raw;
+
+  /**
+   * Whether {@link #parameters} may be shared with another instance. Copies share their backing
+   * list until one side is modified, at which point that side takes a private copy. Copying marks
+   * the source as shared, too, so this is volatile to make that write visible to the thread that
+   * modifies the source later. Reading never writes it.
+   */
+  private volatile boolean shared;
+
+  /**
+   * The parameters grouped by {@link #indexKey(String) index key}, each group in list order, or
+   * {@code null} if there are too few parameters to bother. Built on the first lookup and kept in
+   * step with {@link #parameters} by the mutators after that. Never shared between instances.
+   * Volatile, and only ever assigned a complete map, for the same reason as {@link #parameters}.
+   */
+  private volatile Map<String, List<Parameter>> index;
+
+  /**
+   * The memoized result of {@link #toString()}, or {@code null} if it has not been computed since
+   * the last modification
+   */
+  private String string;
+
+  /**
+   * The memoized result of {@link #hashCode()}, or 0 if it has not been computed since the last
+   * modification. As with {@link String#hashCode()}, a single field means concurrent readers either
+   * see the complete value or compute it again.
+   */
+  private int hash;
+
+  /**
+   * Counts modifications, so that a {@link ModelHttpUrl} can tell when its memoized string form
+   * and hash code are out of date
+   */
+  private int version;
 
   public ModelHttpQueryString() {
     this(emptyList());
   }
 
+  public ModelHttpQueryString(ModelHttpQueryString that) {
+    share(that);
+  }
+
   public ModelHttpQueryString(List<Parameter> parameters) {
     if (parameters == null)
       throw new NullPointerException();
     this.parameters = new ArrayList<>(parameters);
+    this.shared = false;
   }
 
   /* default */ ModelHttpQueryString(ModelHttpQueryStringBuilder that) {
     this(that.parameters());
   }
 
+  private ModelHttpQueryString(String raw) {
+    this.parameters = null;
+    this.raw = raw;
+    this.shared = false;
+    this.string = raw;
+  }
+
   /**
    * @return the entries
    */
   public List<Parameter> getParameters() {
-    return unmodifiableList(parameters);
+    return unmodifiableList(parameters());
   }
 
   public Optional<Parameter> findFirstParameterByName(String name) {
-    return stream().filter(p -> p.getName().equals(name)).findFirst();
+    for (Parameter p : candidates(name))
+      if (p.getName().equals(name))
+        return Optional.of(p);
+    return Optional.empty();
   }
 
   public Optional<String> findFirstParameterValueByName(String name) {
@@ -197,7 +298,18 @@ public class ModelHttpQueryString implements Iterable<Parameter> {
   }
 
   private Stream<Parameter> findAllParametersByNameAsStream(String name) {
-    return stream().filter(p -> p.getName().equals(name));
+    return candidates(name).stream().filter(p -> p.getName().equals(name));
+  }
+
+  /**
+   * Returns a list, in order, of parameters that includes all parameters with the given name,
+   * ignoring case. It may contain other parameters, too, so callers must still check names.
+   */
+  private List<Parameter> candidates(String name) {
+    Map<String, List<Parameter>> idx = index();
+    if (idx == null || name == null)
+      return parameters();
+    return idx.getOrDefault(indexKey(name), emptyList());
   }
 
   public ModelHttpQueryString addParameterFirst(String name, String value) {
@@ -207,7 +319,10 @@ public class ModelHttpQueryString implements Iterable<Parameter> {
   public ModelHttpQueryString addParameterFirst(ModelHttpQueryString.Parameter Parameter) {
     if (Parameter == null)
       throw new NullPointerException();
-    parameters.add(0, Parameter);
+    mutableParameters().add(0, Parameter);
+    if (index != null)
+      index.computeIfAbsent(indexKey(Parameter.getName()), k -> new ArrayList<>(2)).add(0,
+          Parameter);
     return this;
   }
 
@@ -218,17 +333,21 @@ public class ModelHttpQueryString implements Iterable<Parameter> {
   public ModelHttpQueryString addParameterLast(ModelHttpQueryString.Parameter Parameter) {
     if (Parameter == null)
       throw new NullPointerException();
-    parameters.add(parameters.size(), Parameter);
+    List<Parameter> ps = mutableParameters();
+    ps.add(ps.size(), Parameter);
+    if (index != null)
+      index.computeIfAbsent(indexKey(Parameter.getName()), k -> new ArrayList<>(2))
+          .add(Parameter);
     return this;
   }
 
   public ModelHttpQueryString removeFirstParameter(String name) {
-    removeParameterMatching(h -> h.getName().equalsIgnoreCase(name), true);
+    removeParameters(name, true);
     return this;
   }
 
   public ModelHttpQueryString removeAllParameters(String name) {
-    removeParameterMatching(h -> h.getName().equalsIgnoreCase(name), false);
+    removeParameters(name, false);
     return this;
   }
 
@@ -256,16 +375,64 @@ public class ModelHttpQueryString implements Iterable<Parameter> {
   }
 
   public void clear() {
-    parameters.clear();
+    invalidate();
+    index = null;
+    if (shared || parameters == null) {
+      parameters = new ArrayList<>();
+      shared = false;
+    } else {
+      parameters.clear();
+    }
   }
 
   public boolean isEmpty() {
+    if (parameters == null) {
+      // Parsing skips empty parameters, so only a string of ampersands has no parameters
+      for (int i = 0; i < raw.length(); i++)
+        if (raw.charAt(i) != '&')
+          return false;
+      return true;
+    }
     return parameters.isEmpty();
   }
 
+  private void removeParameters(String name, boolean firstOnly) {
+    Predicate<Parameter> test = p -> p.getName().equalsIgnoreCase(name);
+
+    Map<String, List<Parameter>> idx = index();
+    if (idx == null || name == null) {
+      removeParameterMatching(test, firstOnly);
+      return;
+    }
+
+    String key = indexKey(name);
+    List<Parameter> group = idx.get(key);
+    if (group == null)
+      return;
+    if (firstOnly) {
+      Iterator<Parameter> iterator = group.iterator();
+      while (iterator.hasNext()) {
+        Parameter p = iterator.next();
+        if (test.test(p)) {
+          iterator.remove();
+          // Any earlier parameter equal to p would also be earlier in the group, so this removes
+          // the same parameter from the list
+          mutableParameters().remove(p);
+          break;
+        }
+      }
+    } else if (group.removeIf(test)) {
+      mutableParameters().removeIf(test);
+    }
+    if (group.isEmpty())
+      idx.remove(key);
+  }
+
   private void removeParameterMatching(Predicate<ModelHttpQueryString.Parameter> test,
       boolean firstOnly) {
-    Iterator<ModelHttpQueryString.Parameter> iterator = parameters.iterator();
+    if (parameters().stream().noneMatch(test))
+      return;
+    Iterator<ModelHttpQueryString.Parameter> iterator = mutableParameters().iterator();
     while (iterator.hasNext()) {
       if (test.test(iterator.next())) {
         iterator.remove();
@@ -275,9 +442,116 @@ public class ModelHttpQueryString implements Iterable<Parameter> {
     }
   }
 
+  /**
+   * Replaces the contents of this object with the contents of the given object. The two objects
+   * share storage until one of them is modified.
+   */
+  /* default */ void assign(ModelHttpQueryString that) {
+    if (that != this)
+      share(that);
+  }
+
+  private void share(ModelHttpQueryString that) {
+    if (that.parameters != null)
+      that.shared = true;
+    this.parameters = that.parameters;
+    this.raw = that.raw;
+    this.shared = that.parameters != null;
+    this.index = null;
+    this.version = this.version + 1;
+    this.string = that.string;
+    this.hash = that.hash;
+  }
+
+  /**
+   * @return the parameters, parsing {@link #raw} first if necessary
+   */
+  private List<Parameter> parameters() {
+    List<Parameter> result = parameters;
+    if (result == null) {
+      // Nobody else can have seen this list yet, so it is ours alone, and shared is already false.
+      // Concurrent readers may each parse, but they all publish equal, complete lists.
+      result = parse(raw);
+      parameters = result;
+    }
+    return result;
+  }
+
+  /**
+   * @return the index, building it first if necessary, or {@code null} if there are too few
+   *         parameters to index
+   */
+  private Map<String, List<Parameter>> index() {
+    Map<String, List<Parameter>> result = index;
+    if (result == null) {
+      List<Parameter> parameters = parameters();
+      if (parameters.size() >= INDEX_THRESHOLD) {
+        // Build the map completely before publishing it, so concurrent readers never see it partial
+        result = new HashMap<>();
+        for (Parameter p : parameters)
+          result.computeIfAbsent(indexKey(p.getName()), k -> new ArrayList<>(2)).add(p);
+        index = result;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Folds the case of each code point in the given name the same way
+   * {@link String#equalsIgnoreCase(String)} compares them, so that names that are equal ignoring
+   * case have the same key. Returns the given name if it is already folded.
+   */
+  private static String indexKey(String name) {
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (Character.isSurrogate(c) || Character.toLowerCase(Character.toUpperCase(c)) != c) {
+        StringBuilder result = new StringBuilder(name.length());
+        result.append(name, 0, i);
+        for (int j = i; j < name.length(); j = j + Character.charCount(name.codePointAt(j)))
+          result.appendCodePoint(Character.toLowerCase(Character.toUpperCase(name.codePointAt(j))));
+        return result.toString();
+      }
+    }
+    return name;
+  }
+
+  /**
+   * Prepares this object for modification and returns the parameters to modify. Takes a private
+   * copy of the parameters if they may be shared with another instance, and drops the raw string
+   * and memoized values, since they will no longer be accurate.
+   */
+  private List<Parameter> mutableParameters() {
+    parameters();
+    if (shared) {
+      parameters = new ArrayList<>(parameters);
+      shared = false;
+    }
+    invalidate();
+    return parameters;
+  }
+
+  /**
+   * Drops the raw string and the memoized string form and hash code, and records a modification
+   */
+  private void invalidate() {
+    raw = null;
+    string = null;
+    hash = 0;
+    version = version + 1;
+  }
+
+  /* default */ int version() {
+    return version;
+  }
+
   @Override
   public int hashCode() {
-    return Objects.hash(parameters);
+    int result = hash;
+    if (result == 0) {
+      result = Objects.hash(parameters());
+      hash = result;
+    }
+    return result;
   }
 
   @Override
@@ -289,17 +563,33 @@ public class ModelHttpQueryString implements Iterable<Parameter> {
     if (getClass() != obj.getClass())
       return false;
     ModelHttpQueryString other = (ModelHttpQueryString) obj;
-    return Objects.equals(parameters, other.parameters);
+    if (raw != null && raw.equals(other.raw))
+      return true;
+    return Objects.equals(parameters(), other.parameters());
   }
 
   /**
-   * Converts this object to a valid query string
+   * Converts this object to a valid query string. If this object was parsed from a string and has
+   * not been modified since, then returns that string. The result is memoized until this object is
+   * modified, so it is the same instance on repeated calls.
    *
    * @see #fromString(String)
    */
   @Override
   public String toString() {
-    return stream().map(Parameter::toString).collect(joining("&"));
+    String result = string;
+    if (result == null) {
+      List<Parameter> ps = parameters();
+      StringBuilder buf = new StringBuilder(16 * ps.size());
+      for (int i = 0; i < ps.size(); i++) {
+        if (i != 0)
+          buf.append('&');
+        ps.get(i).appendTo(buf);
+      }
+      result = buf.toString();
+      string = result;
+    }
+    return result;
   }
 
   public ModelHttpQueryStringBuilder toBuilder() {
@@ -32,11 +32,11 @@ public abstract class ModelHttpQueryStringBuilderBase<BuilderT extends ModelHttp
   }
 
   public ModelHttpQueryStringBuilderBase(BuilderT that) {
-    this(that.parameters());
+    this(that.build());
   }
 
   public ModelHttpQueryStringBuilderBase(ModelHttpQueryString that) {
-    this(that.getParameters());
+    this.building = new ModelHttpQueryString(that);
   }
 
   public ModelHttpQueryStringBuilderBase(List<Parameter> parameters) {
@@ -99,9 +99,7 @@ public abstract class ModelHttpQueryStringBuilderBase<BuilderT extends ModelHttp
 
   @SuppressWarnings("unchecked")
   public BuilderT assign(ModelHttpQueryString value) {
-    building.clear();
-    for (Parameter parameter : value)
-      building.addParameterLast(parameter);
+    building.assign(value);
     return (BuilderT) this;
   }
 
@@ -32,11 +32,14 @@ public class ModelHttpQueryStringChildBuilderBase<ParentT, BuilderT extends Mode
   }
 
   public ModelHttpQueryStringChildBuilderBase(ParentT parent, BuilderT that) {
-    this(parent, that.parameters());
+    this(parent, that.build());
   }
 
   public ModelHttpQueryStringChildBuilderBase(ParentT parent, ModelHttpQueryString that) {
-    this(parent, that.getParameters());
+    super(that);
+    if (parent == null)
+      throw new NullPointerException();
+    this.parent = parent;
   }
 
   public ModelHttpQueryStringChildBuilderBase(ParentT parent, List<Parameter> parameters) {
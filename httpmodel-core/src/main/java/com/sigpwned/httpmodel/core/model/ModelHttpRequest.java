@@ -19,24 +19,29 @@
  */
 package com.sigpwned.httpmodel.core.model;
 
-import static java.util.Collections.emptyMap;
-import static java.util.Collections.unmodifiableMap;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.zip.Deflater;
 import com.sigpwned.httpmodel.core.io.ByteFilterSource;
-import com.sigpwned.httpmodel.core.model.ModelHttpHeaders.Header;
+import com.sigpwned.httpmodel.core.io.filtered.ContentDecoders;
+import com.sigpwned.httpmodel.core.io.filtered.ContentEncoders;
 import com.sigpwned.httpmodel.core.util.ModelHttpHeaderNames;
 import com.sigpwned.httpmodel.core.util.ModelHttpMethods;
 import com.sigpwned.httpmodel.core.util.ModelHttpVersions;
-import com.sigpwned.httpmodel.core.util.MorePropertiesBearing;
 
 /**
  * Models an HTTP request
  */
 public class ModelHttpRequest extends ModelHttpEntityInputStream {
+  /**
+   * @see #compress()
+   */
+  public static final long DEFAULT_COMPRESSION_THRESHOLD = 1024L;
+
   public static ModelHttpRequestBuilder builder() {
     return new ModelHttpRequestBuilder();
   }
@@ -59,7 +64,7 @@ public class ModelHttpRequest extends ModelHttpEntityInputStream {
    * This is not part of HTTP. Rather, it is used by applications to store arbitrary state on the
    * request during processing.
    */
-  private Map<String, Object> properties;
+  private final ModelHttpProperties properties;
 
   public ModelHttpRequest(ModelHttpRequestHead head) throws IOException {
     this(head, (InputStream) null);
@@ -67,38 +72,54 @@ public class ModelHttpRequest extends ModelHttpEntityInputStream {
 
   public ModelHttpRequest(ModelHttpRequestHead head, ModelHttpEntity entity) throws IOException {
     this(head.getVersion(), head.getMethod(), head.getUrl(), head.getHeaders(),
-        MorePropertiesBearing.toMap(head), entity);
+        head.copyProperties(), entity);
   }
 
   public ModelHttpRequest(ModelHttpRequestHead head, InputStream entity) throws IOException {
     this(head.getVersion(), head.getMethod(), head.getUrl(), head.getHeaders(),
-        MorePropertiesBearing.toMap(head), entity);
+        head.copyProperties(), entity);
   }
 
   public ModelHttpRequest(String version, String method, ModelHttpUrl url, ModelHttpHeaders headers,
       ModelHttpEntity entity) throws IOException {
-    this(version, method, url, headers, emptyMap(), entity);
+    this(version, method, url, headers, new ModelHttpProperties(), entity);
   }
 
   public ModelHttpRequest(String version, String method, ModelHttpUrl url, ModelHttpHeaders headers,
       Map<String, Object> properties, ModelHttpEntity entity) throws IOException {
+    this(version, method, url, headers, new ModelHttpProperties(properties), entity);
+  }
+
+  /* default */ ModelHttpRequest(String version, String method, ModelHttpUrl url,
+      ModelHttpHeaders headers, ModelHttpProperties properties, ModelHttpEntity entity)
+      throws IOException {
     this(version, method, url,
         entity != null
             ? headers.toBuilder()
                 .setOnlyHeader(ModelHttpHeaderNames.CONTENT_TYPE,
                     entity.getContentType().toString())
                 .build()
-            : null,
+            : headers,
         properties, entity != null ? entity.toInputStream() : null);
   }
 
   public ModelHttpRequest(String version, String method, ModelHttpUrl url, ModelHttpHeaders headers,
       InputStream entity) throws IOException {
-    this(version, method, url, headers, emptyMap(), entity);
+    this(version, method, url, headers, new ModelHttpProperties(), entity);
   }
 
   public ModelHttpRequest(String version, String method, ModelHttpUrl url, ModelHttpHeaders headers,
       Map<String, Object> properties, InputStream entity) throws IOException {
+    this(version, method, url, headers, new ModelHttpProperties(properties), entity);
+  }
+
+  /**
+   * Takes ownership of the given properties. Callers pass a {@link ModelHttpProperties#copy()} to
+   * share properties with another object.
+   */
+  /* default */ ModelHttpRequest(String version, String method, ModelHttpUrl url,
+      ModelHttpHeaders headers, ModelHttpProperties properties, InputStream entity)
+      throws IOException {
     super(entity);
     if (version == null)
       throw new NullPointerException();
@@ -114,7 +135,7 @@ public class ModelHttpRequest extends ModelHttpEntityInputStream {
     this.method = method.toUpperCase();
     this.url = url;
     this.headers = headers;
-    this.properties = new HashMap<>(properties);
+    this.properties = properties;
   }
 
   public String getVersion() {
@@ -165,28 +186,94 @@ public class ModelHttpRequest extends ModelHttpEntityInputStream {
   public Optional<ModelHttpMediaType> getContentType() {
     if (!hasEntity())
       return Optional.empty();
-    return getHeaders().findFirstHeaderByName(ModelHttpHeaderNames.CONTENT_TYPE)
-        .map(Header::getValue).map(ModelHttpMediaType::fromString);
+    return getHeaders().findContentType();
+  }
+
+  /**
+   * Uses the {@code Content-Length} header, if any, as the length hint
+   */
+  @Override
+  protected OptionalLong lengthHint() {
+    if (!hasEntity())
+      return OptionalLong.empty();
+    return getHeaders().findContentLength();
   }
 
   public void encode(ByteFilterSource filterSource) throws IOException {
     filter(filterSource);
   }
 
+  /**
+   * Compresses this request's entity with gzip at the default level, unless it is known to be
+   * smaller than {@link #DEFAULT_COMPRESSION_THRESHOLD}.
+   *
+   * @see #compress(String, int, long)
+   */
+  public boolean compress() throws IOException {
+    return compress(ContentDecoders.GZIP, Deflater.DEFAULT_COMPRESSION,
+        DEFAULT_COMPRESSION_THRESHOLD);
+  }
+
+  /**
+   * Compresses this request's entity with the given content coding as it is read, using the
+   * encoders from {@link ContentEncoders#forContentCoding(String, int)}, and sets the
+   * {@code Content-Encoding} header to match. The compressed length is not known in advance, so
+   * the {@code Content-Length} header is removed. Does nothing if this request has no entity, the
+   * entity already has a content coding, or the entity is known to be smaller than the threshold,
+   * either because it is buffered or from its {@code Content-Length} header. An entity of unknown
+   * length is always compressed.
+   *
+   * @param coding the content coding to use, e.g., {@link ContentDecoders#GZIP}
+   * @param level the compression level, from 0 to 9, or {@link Deflater#DEFAULT_COMPRESSION}
+   * @param threshold the length in bytes below which the entity is not worth compressing
+   * @return {@code true} if this call compressed the entity, or {@code false} otherwise
+   * @throws IllegalArgumentException if the coding is not supported or the level is not valid
+   * @throws IllegalStateException if this stream has already been read
+   */
+  public boolean compress(String coding, int level, long threshold) throws IOException {
+    ByteFilterSource encoder = ContentEncoders.forContentCoding(coding, level)
+        .orElseThrow(() -> new IllegalArgumentException("unsupported content coding " + coding));
+    if (!hasEntity())
+      return false;
+
+    for (String value : getHeaders()
+        .findAllHeaderValuesByName(ModelHttpHeaderNames.CONTENT_ENCODING)) {
+      String current = value.trim();
+      if (!current.isEmpty() && !current.equalsIgnoreCase(ContentDecoders.IDENTITY))
+        return false;
+    }
+
+    OptionalLong length = length();
+    if (!length.isPresent())
+      length = lengthHint();
+    if (length.isPresent() && length.getAsLong() < threshold)
+      return false;
+
+    encode(encoder);
+    getHeaders().setOnlyHeader(ModelHttpHeaderNames.CONTENT_ENCODING,
+        coding.trim().toLowerCase(Locale.ROOT));
+    getHeaders().removeAllHeaders(ModelHttpHeaderNames.CONTENT_LENGTH);
+
+    return true;
+  }
+
   public Optional<Object> getProperty(String name) {
-    return Optional.ofNullable(properties.get(name));
+    return properties.get(name);
   }
 
   public void setProperty(String name, Object value) {
-    if (value != null) {
-      properties.put(name, value);
-    } else {
-      properties.remove(name);
-    }
+    properties.set(name, value);
   }
 
   public Map<String, Object> getProperties() {
-    return unmodifiableMap(properties);
+    return properties.asMap();
+  }
+
+  /**
+   * @return a copy of this object's properties that shares storage until modified
+   */
+  /* default */ ModelHttpProperties copyProperties() {
+    return properties.copy();
   }
 
   @Override
@@ -19,11 +19,8 @@
  */
 package com.sigpwned.httpmodel.core.model;
 
-import static java.util.Collections.emptyMap;
-import static java.util.Collections.unmodifiableSet;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -37,7 +34,7 @@ public class ModelHttpRequestHead implements PropertiesBearing {
 
   public static ModelHttpRequestHead fromRequest(ModelHttpRequest request) {
     return new ModelHttpRequestHead(request.getVersion(), request.getMethod(), request.getUrl(),
-        request.getHeaders(), request.getProperties());
+        request.getHeaders(), request.copyProperties());
   }
 
   /**
@@ -57,15 +54,24 @@ public class ModelHttpRequestHead implements PropertiesBearing {
   /**
    * Not related to HTTP. Used to store arbitrary state during processing.
    */
-  private Map<String, Object> properties;
+  private final ModelHttpProperties properties;
 
   public ModelHttpRequestHead(String version, String method, ModelHttpUrl url,
       ModelHttpHeaders headers) {
-    this(version, method, url, headers, emptyMap());
+    this(version, method, url, headers, new ModelHttpProperties());
   }
 
   public ModelHttpRequestHead(String version, String method, ModelHttpUrl url,
       ModelHttpHeaders headers, Map<String, Object> properties) {
+    this(version, method, url, headers, new ModelHttpProperties(properties));
+  }
+
+  /**
+   * Takes ownership of the given properties. Callers pass a {@link ModelHttpProperties#copy()} to
+   * share properties with another object.
+   */
+  /* default */ ModelHttpRequestHead(String version, String method, ModelHttpUrl url,
+      ModelHttpHeaders headers, ModelHttpProperties properties) {
     if (version == null)
       throw new NullPointerException();
     if (method == null)
@@ -80,11 +86,11 @@ public class ModelHttpRequestHead implements PropertiesBearing {
     this.method = method;
     this.url = url;
     this.headers = headers;
-    this.properties = new HashMap<>(properties);
+    this.properties = properties;
   }
 
   /* default */ ModelHttpRequestHead(ModelHttpRequestHeadBuilder b) {
-    this(b.version(), b.method(), b.url().build(), b.headers().build(), b.properties());
+    this(b.version(), b.method(), b.url().build(), b.headers().build(), b.copyProperties());
   }
 
   public String getVersion() {
@@ -141,21 +147,24 @@ public class ModelHttpRequestHead implements PropertiesBearing {
 
   @Override
   public Optional<Object> getProperty(String name) {
-    return Optional.ofNullable(properties.get(name));
+    return properties.get(name);
   }
 
   @Override
   public void setProperty(String name, Object value) {
-    if (value != null) {
-      properties.put(name, value);
-    } else {
-      properties.remove(name);
-    }
+    properties.set(name, value);
   }
 
   @Override
   public Set<String> getPropertyNames() {
-    return unmodifiableSet(properties.keySet());
+    return properties.names();
+  }
+
+  /**
+   * @return a copy of this object's properties that shares storage until modified
+   */
+  /* default */ ModelHttpProperties copyProperties() {
+    return properties.copy();
   }
 
   @Override
@@ -19,8 +19,6 @@
  */
 package com.sigpwned.httpmodel.core.model;
 
-import com.sigpwned.httpmodel.core.util.MorePropertiesBearing;
-
 /**
  * Models an HTTP request
  */
@@ -29,11 +27,7 @@ public class ModelHttpRequestHeadBuilder extends
   public ModelHttpRequestHeadBuilder() {}
 
   public ModelHttpRequestHeadBuilder(ModelHttpRequestHead value) {
-    version(value.getVersion());
-    method(value.getMethod());
-    url(value.getUrl());
-    headers(value.getHeaders());
-    properties(MorePropertiesBearing.toMap(value));
+    super(value);
   }
 
   @Override
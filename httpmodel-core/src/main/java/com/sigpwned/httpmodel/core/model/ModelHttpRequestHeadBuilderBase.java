@@ -19,11 +19,9 @@
  */
 package com.sigpwned.httpmodel.core.model;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import com.sigpwned.httpmodel.core.util.ModelHttpVersions;
-import com.sigpwned.httpmodel.core.util.MorePropertiesBearing;
 
 /**
  * Models an HTTP request
@@ -37,12 +35,12 @@ public abstract class ModelHttpRequestHeadBuilderBase<QueryStringBuilderT extend
 
   private HeadersBuilderT headers;
 
-  private Map<String, Object> properties;
+  private ModelHttpProperties properties;
 
   public ModelHttpRequestHeadBuilderBase() {
     this.version = ModelHttpVersions.DEFAULT;
     this.headers = newHeadersBuilder();
-    this.properties = new HashMap<>();
+    this.properties = new ModelHttpProperties();
   }
 
   public ModelHttpRequestHeadBuilderBase(BuilderT that) {
@@ -50,7 +48,7 @@ public abstract class ModelHttpRequestHeadBuilderBase<QueryStringBuilderT extend
     this.method = that.method();
     this.url = that.url();
     this.headers = that.headers();
-    this.properties = that.properties();
+    this.properties = ((ModelHttpRequestHeadBuilderBase<?, ?, ?, ?>) that).properties;
   }
 
   public ModelHttpRequestHeadBuilderBase(ModelHttpRequestHead that) {
@@ -58,7 +56,7 @@ public abstract class ModelHttpRequestHeadBuilderBase<QueryStringBuilderT extend
     this.method = that.getMethod();
     this.url = that.getUrl() != null ? newUrlBuilder().assign(that.getUrl()) : null;
     this.headers = newHeadersBuilder().assign(that.getHeaders());
-    this.properties = new HashMap<>(MorePropertiesBearing.toMap(that));
+    this.properties = that.copyProperties();
   }
 
 
@@ -124,11 +122,7 @@ public abstract class ModelHttpRequestHeadBuilderBase<QueryStringBuilderT extend
 
   @SuppressWarnings("unchecked")
   public BuilderT property(String name, Object value) {
-    if (value != null) {
-      properties.put(name, value);
-    } else {
-      properties.remove(name);
-    }
+    properties.set(name, value);
     return (BuilderT) this;
   }
 
@@ -140,7 +134,14 @@ public abstract class ModelHttpRequestHeadBuilderBase<QueryStringBuilderT extend
   }
 
   protected Map<String, Object> properties() {
-    return properties;
+    return properties.asMap();
+  }
+
+  /**
+   * @return a copy of the properties being built that shares storage until modified
+   */
+  /* default */ ModelHttpProperties copyProperties() {
+    return properties.copy();
   }
 
   protected ModelHttpRequestHead build() {
@@ -149,7 +150,7 @@ public abstract class ModelHttpRequestHeadBuilderBase<QueryStringBuilderT extend
             .orElseThrow(() -> new IllegalStateException("no url")),
         Optional.ofNullable(headers()).map(HeadersBuilderT::build)
             .orElseThrow(() -> new IllegalStateException("no headers")),
-        properties());
+        copyProperties());
   }
 
   protected abstract UrlBuilderT newUrlBuilder();
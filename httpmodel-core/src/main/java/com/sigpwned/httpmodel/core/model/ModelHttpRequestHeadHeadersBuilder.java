@@ -31,12 +31,12 @@ public class ModelHttpRequestHeadHeadersBuilder extends
 
   /* default */ ModelHttpRequestHeadHeadersBuilder(ModelHttpRequestHeadBuilder parent,
       ModelHttpRequestHeadHeadersBuilder that) {
-    this(parent, that.headers());
+    super(parent, that);
   }
 
   /* default */ ModelHttpRequestHeadHeadersBuilder(ModelHttpRequestHeadBuilder parent,
       ModelHttpHeaders that) {
-    this(parent, that.getHeaders());
+    super(parent, that);
   }
 
   /* default */ ModelHttpRequestHeadHeadersBuilder(ModelHttpRequestHeadBuilder parent,
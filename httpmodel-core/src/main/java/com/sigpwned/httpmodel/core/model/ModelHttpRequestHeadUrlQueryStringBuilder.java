@@ -31,12 +31,12 @@ public class ModelHttpRequestHeadUrlQueryStringBuilder extends
 
   /* default */ ModelHttpRequestHeadUrlQueryStringBuilder(ModelHttpRequestHeadUrlBuilder parent,
       ModelHttpRequestHeadUrlQueryStringBuilder that) {
-    this(parent, that.parameters());
+    super(parent, that);
   }
 
   /* default */ ModelHttpRequestHeadUrlQueryStringBuilder(ModelHttpRequestHeadUrlBuilder parent,
       ModelHttpQueryString that) {
-    this(parent, that.getParameters());
+    super(parent, that);
   }
 
   /* default */ ModelHttpRequestHeadUrlQueryStringBuilder(ModelHttpRequestHeadUrlBuilder parent,
@@ -31,12 +31,12 @@ public class ModelHttpRequestHeadersBuilder extends
 
   /* default */ ModelHttpRequestHeadersBuilder(ModelHttpRequestBuilder parent,
       ModelHttpRequestHeadersBuilder that) {
-    this(parent, that.headers());
+    super(parent, that);
   }
 
   /* default */ ModelHttpRequestHeadersBuilder(ModelHttpRequestBuilder parent,
       ModelHttpHeaders that) {
-    this(parent, that.getHeaders());
+    super(parent, that);
   }
 
   /* default */ ModelHttpRequestHeadersBuilder(ModelHttpRequestBuilder parent,
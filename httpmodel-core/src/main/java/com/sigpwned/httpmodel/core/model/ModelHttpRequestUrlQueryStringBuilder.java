@@ -31,12 +31,12 @@ public class ModelHttpRequestUrlQueryStringBuilder extends
 
   /* default */ ModelHttpRequestUrlQueryStringBuilder(ModelHttpRequestUrlBuilder parent,
       ModelHttpRequestUrlQueryStringBuilder that) {
-    this(parent, that.parameters());
+    super(parent, that);
   }
 
   /* default */ ModelHttpRequestUrlQueryStringBuilder(ModelHttpRequestUrlBuilder parent,
       ModelHttpQueryString that) {
-    this(parent, that.getParameters());
+    super(parent, that);
   }
 
   /* default */ ModelHttpRequestUrlQueryStringBuilder(ModelHttpRequestUrlBuilder parent,
@@ -21,9 +21,13 @@ package com.sigpwned.httpmodel.core.model;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.regex.Pattern;
 import com.sigpwned.httpmodel.core.io.ByteFilterSource;
-import com.sigpwned.httpmodel.core.model.ModelHttpHeaders.Header;
+import com.sigpwned.httpmodel.core.io.filtered.ContentDecoders;
 import com.sigpwned.httpmodel.core.util.ModelHttpHeaderNames;
 import com.sigpwned.httpmodel.core.util.ModelHttpStatusCodes;
 
@@ -31,6 +35,8 @@ import com.sigpwned.httpmodel.core.util.ModelHttpStatusCodes;
  * Models an HTTP response
  */
 public class ModelHttpResponse extends ModelHttpEntityInputStream {
+  private static final Pattern COMMA = Pattern.compile(",");
+
   public static ModelHttpResponseBuilder builder() {
     return new ModelHttpResponseBuilder();
   }
@@ -62,7 +68,7 @@ public class ModelHttpResponse extends ModelHttpEntityInputStream {
                 .setOnlyHeader(ModelHttpHeaderNames.CONTENT_TYPE,
                     entity.getContentType().toString())
                 .build()
-            : null,
+            : headers,
         entity != null ? entity.toInputStream() : null);
   }
 
@@ -97,8 +103,17 @@ public class ModelHttpResponse extends ModelHttpEntityInputStream {
   public Optional<ModelHttpMediaType> getContentType() {
     if (!hasEntity())
       return Optional.empty();
-    return this.getHeaders().findFirstHeaderByName(ModelHttpHeaderNames.CONTENT_TYPE)
-        .map(Header::getValue).map(ModelHttpMediaType::fromString);
+    return getHeaders().findContentType();
+  }
+
+  /**
+   * Uses the {@code Content-Length} header, if any, as the length hint
+   */
+  @Override
+  protected OptionalLong lengthHint() {
+    if (!hasEntity())
+      return OptionalLong.empty();
+    return getHeaders().findContentLength();
   }
 
   public ModelHttpResponse decode(ByteFilterSource filterSource) throws IOException {
@@ -106,6 +121,52 @@ public class ModelHttpResponse extends ModelHttpEntityInputStream {
     return this;
   }
 
+  /**
+   * Decodes this response's entity according to its {@code Content-Encoding} header using the
+   * decoders from {@link ContentDecoders#forContentCoding(String)}. Codings are decoded in the
+   * reverse of the order they were applied, stopping at the first unsupported coding. The header
+   * is updated to list only the codings that remain, and the {@code Content-Length} header is
+   * removed if any coding was decoded, since it no longer describes the entity. Does nothing if
+   * this response has no entity.
+   *
+   * @throws IllegalStateException if this stream has already been read
+   */
+  public ModelHttpResponse decode() throws IOException {
+    if (!hasEntity())
+      return this;
+
+    List<String> codings = new ArrayList<>(2);
+    for (String value : getHeaders()
+        .findAllHeaderValuesByName(ModelHttpHeaderNames.CONTENT_ENCODING)) {
+      for (String coding : COMMA.split(value)) {
+        coding = coding.trim();
+        if (!coding.isEmpty() && !coding.equalsIgnoreCase(ContentDecoders.IDENTITY))
+          codings.add(coding);
+      }
+    }
+
+    int remaining = codings.size();
+    while (remaining > 0) {
+      Optional<ByteFilterSource> decoder =
+          ContentDecoders.forContentCoding(codings.get(remaining - 1));
+      if (!decoder.isPresent())
+        break;
+      decode(decoder.get());
+      remaining = remaining - 1;
+    }
+
+    if (remaining < codings.size()) {
+      if (remaining == 0)
+        getHeaders().removeAllHeaders(ModelHttpHeaderNames.CONTENT_ENCODING);
+      else
+        getHeaders().setOnlyHeader(ModelHttpHeaderNames.CONTENT_ENCODING,
+            String.join(", ", codings.subList(0, remaining)));
+      getHeaders().removeAllHeaders(ModelHttpHeaderNames.CONTENT_LENGTH);
+    }
+
+    return this;
+  }
+
   @Override
   public String toString() {
     return "ModelHttpResponse [statusCode=" + statusCode + ", headers=" + headers + "]";
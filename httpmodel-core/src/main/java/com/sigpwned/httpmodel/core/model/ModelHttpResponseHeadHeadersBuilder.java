@@ -31,12 +31,12 @@ public class ModelHttpResponseHeadHeadersBuilder extends
 
   /* default */ ModelHttpResponseHeadHeadersBuilder(ModelHttpResponseHeadBuilder parent,
       ModelHttpResponseHeadHeadersBuilder that) {
-    this(parent, that.headers());
+    super(parent, that);
   }
 
   /* default */ ModelHttpResponseHeadHeadersBuilder(ModelHttpResponseHeadBuilder parent,
       ModelHttpHeaders that) {
-    this(parent, that.getHeaders());
+    super(parent, that);
   }
 
   /* default */ ModelHttpResponseHeadHeadersBuilder(ModelHttpResponseHeadBuilder parent,
@@ -31,12 +31,12 @@ public class ModelHttpResponseHeadersBuilder extends
 
   /* default */ ModelHttpResponseHeadersBuilder(ModelHttpResponseBuilder parent,
       ModelHttpResponseHeadersBuilder that) {
-    this(parent, that.headers());
+    super(parent, that);
   }
 
   /* default */ ModelHttpResponseHeadersBuilder(ModelHttpResponseBuilder parent,
       ModelHttpHeaders that) {
-    this(parent, that.getHeaders());
+    super(parent, that);
   }
 
   /* default */ ModelHttpResponseHeadersBuilder(ModelHttpResponseBuilder parent,
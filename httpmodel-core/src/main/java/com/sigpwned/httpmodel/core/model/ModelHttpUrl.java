@@ -35,26 +35,107 @@ public class ModelHttpUrl {
   }
 
   /**
-   * Parses a valid URL
+   * Parses a valid URL of the form scheme://authority/path?query. The scheme is lowercased, a
+   * missing path is treated as /, and any user info and fragment are dropped. Does not go through
+   * {@link URL}, so no protocol handlers are involved.
    *
    * @throws IllegalArgumentException if the string is not a valid URL
    *
    * @see #toString()
    */
   public static ModelHttpUrl fromString(String s) {
-    try {
-      return fromUrl(new URL(s));
-    } catch (MalformedURLException e) {
+    // Ignore surrounding whitespace, like URL does
+    int start = 0;
+    int end = s.length();
+    while (start < end && s.charAt(start) <= ' ')
+      start = start + 1;
+    while (end > start && s.charAt(end - 1) <= ' ')
+      end = end - 1;
+
+    int colon = schemeEnd(s, start, end);
+    if (colon == -1)
       throw new IllegalArgumentException("must be a valid URL");
+    if (end - colon < 3 || s.charAt(colon + 1) != '/' || s.charAt(colon + 2) != '/')
+      throw new IllegalArgumentException("must be a valid URL");
+    String scheme = scheme(s, start, colon);
+
+    int authorityStart = colon + 3;
+    int authorityEnd = authorityStart;
+    while (authorityEnd < end) {
+      char ch = s.charAt(authorityEnd);
+      if (ch == '/' || ch == '?' || ch == '#')
+        break;
+      authorityEnd = authorityEnd + 1;
+    }
+    ModelHttpAuthority authority = ModelHttpAuthority.parse(s, authorityStart, authorityEnd);
+
+    int pathEnd = authorityEnd;
+    while (pathEnd < end) {
+      char ch = s.charAt(pathEnd);
+      if (ch == '?' || ch == '#')
+        break;
+      pathEnd = pathEnd + 1;
+    }
+    String path = pathEnd == authorityEnd ? "/" : s.substring(authorityEnd, pathEnd);
+
+    ModelHttpQueryString queryString;
+    if (pathEnd < end && s.charAt(pathEnd) == '?') {
+      int queryEnd = s.indexOf('#', pathEnd + 1);
+      if (queryEnd == -1 || queryEnd > end)
+        queryEnd = end;
+      queryString = ModelHttpQueryString.fromString(s.substring(pathEnd + 1, queryEnd));
+    } else {
+      queryString = null;
     }
+
+    return of(scheme, authority, path, queryString);
   }
 
   public static ModelHttpUrl fromUri(URI uri) {
-    try {
-      return fromUrl(uri.toURL());
-    } catch (MalformedURLException e) {
-      throw new IllegalArgumentException(uri.toString(), e);
+    if (!uri.isAbsolute())
+      throw new IllegalArgumentException("URI is not absolute");
+    return fromString(uri.toString());
+  }
+
+  /**
+   * @return the index of the colon that ends the scheme starting at {@code start}, or -1 if there
+   *         is no valid scheme there
+   */
+  private static int schemeEnd(String s, int start, int end) {
+    if (start == end || !isAsciiLetter(s.charAt(start)))
+      return -1;
+    for (int i = start + 1; i < end; i++) {
+      char ch = s.charAt(i);
+      if (ch == ':')
+        return i;
+      if (!isAsciiLetter(ch) && !(ch >= '0' && ch <= '9') && ch != '+' && ch != '-' && ch != '.')
+        return -1;
+    }
+    return -1;
+  }
+
+  /**
+   * @return the lowercased scheme in {@code s[start:end)}, using the {@link ModelHttpSchemes}
+   *         constants for the common cases
+   */
+  private static String scheme(String s, int start, int end) {
+    int length = end - start;
+    if (length == ModelHttpSchemes.HTTP.length()
+        && s.regionMatches(true, start, ModelHttpSchemes.HTTP, 0, length))
+      return ModelHttpSchemes.HTTP;
+    if (length == ModelHttpSchemes.HTTPS.length()
+        && s.regionMatches(true, start, ModelHttpSchemes.HTTPS, 0, length))
+      return ModelHttpSchemes.HTTPS;
+    char[] result = new char[length];
+    for (int i = 0; i < length; i++) {
+      char ch = s.charAt(start + i);
+      result[i] = ch >= 'A' && ch <= 'Z' ? (char) (ch + ('a' - 'A')) : ch;
     }
+    return new String(result);
+  }
+
+  private static boolean isAsciiLetter(char ch) {
+    return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z');
   }
 
   /**
@@ -90,6 +171,40 @@ public class ModelHttpUrl {
 
   private ModelHttpQueryString queryString;
 
+  /**
+   * The memoized results of {@link #toString()} and {@link #hashCode()}, or {@code null} if they
+   * have not been computed since the last call to a setter. Kept in a single volatile field, so
+   * concurrent readers see either a complete snapshot or none.
+   */
+  private volatile Snapshot snapshot;
+
+  /**
+   * Memoized values along with the versions of the host and query string they were computed from,
+   * which detect changes made to those in place, e.g., through
+   * {@code getQueryString().addParameterLast(...)}
+   */
+  private static final class Snapshot {
+    final int hostVersion;
+
+    final int queryStringVersion;
+
+    final String string;
+
+    final int hash;
+
+    /**
+     * The result of {@link ModelHttpUrl#toUri()}, or {@code null} if it has not been needed yet
+     */
+    volatile URI uri;
+
+    Snapshot(int hostVersion, int queryStringVersion, String string, int hash) {
+      this.hostVersion = hostVersion;
+      this.queryStringVersion = queryStringVersion;
+      this.string = string;
+      this.hash = hash;
+    }
+  }
+
   public ModelHttpUrl(String scheme, ModelHttpAuthority authority, String path,
       ModelHttpQueryString queryString) {
     if (scheme == null)
@@ -118,6 +233,7 @@ public class ModelHttpUrl {
 
   public ModelHttpUrl setScheme(String scheme) {
     this.scheme = scheme;
+    this.snapshot = null;
     return this;
   }
 
@@ -127,6 +243,7 @@ public class ModelHttpUrl {
 
   public ModelHttpUrl setAuthority(ModelHttpAuthority authority) {
     this.authority = authority;
+    this.snapshot = null;
     return this;
   }
 
@@ -136,6 +253,7 @@ public class ModelHttpUrl {
 
   public ModelHttpUrl setPath(String path) {
     this.path = path;
+    this.snapshot = null;
     return this;
   }
 
@@ -145,6 +263,7 @@ public class ModelHttpUrl {
 
   public ModelHttpUrl setQueryString(ModelHttpQueryString queryString) {
     this.queryString = queryString;
+    this.snapshot = null;
     return this;
   }
 
@@ -153,7 +272,8 @@ public class ModelHttpUrl {
   }
 
   /**
-   * Converts this object into a valid URL
+   * Converts this object into a valid URL. Goes through {@link #toUri()}, which validates the URL
+   * and is memoized, so converting an unchanged URL again only builds the {@link URL} itself.
    *
    * @throws IllegalArgumentException if the URL is not valid, which may happen if scheme or path
    *         are not valid
@@ -166,13 +286,28 @@ public class ModelHttpUrl {
     }
   }
 
+  /**
+   * Converts this object into a URI. The result is memoized along with {@link #toString()}, so it
+   * is parsed once per modification. The URI is parsed from the memoized string rather than built
+   * with the multi-argument {@link URI} constructors, since those always quote {@code %}, which
+   * would encode the already-encoded path and query string a second time.
+   *
+   * @throws IllegalArgumentException if the URI is not valid, which may happen if scheme or path
+   *         are not valid
+   */
   public URI toUri() {
-    return URI.create(toString());
+    Snapshot s = snapshot();
+    URI result = s.uri;
+    if (result == null) {
+      result = URI.create(s.string);
+      s.uri = result;
+    }
+    return result;
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(authority, path, queryString, scheme);
+    return snapshot().hash;
   }
 
   @Override
@@ -189,16 +324,39 @@ public class ModelHttpUrl {
   }
 
   /**
-   * Converts this object into a valid URL string
+   * Converts this object into a valid URL string. The result is memoized until this object, its
+   * authority, or its query string is modified.
    *
    * @see #fromString(String)
    */
   @Override
   public String toString() {
-    String result = getScheme() + "://" + getAuthority() + getPath();
-    if (getQueryString() != null) {
-      result = result + "?" + getQueryString();
+    return snapshot().string;
+  }
+
+  /**
+   * @return the memoized values, computing them first unless they are already up to date
+   */
+  private Snapshot snapshot() {
+    int hostVersion = getAuthority().getHost().version();
+    int queryStringVersion = getQueryString() != null ? getQueryString().version() : 0;
+    Snapshot result = snapshot;
+    if (result == null || result.hostVersion != hostVersion
+        || result.queryStringVersion != queryStringVersion) {
+      result = new Snapshot(hostVersion, queryStringVersion, serialize(),
+          Objects.hash(authority, path, queryString, scheme));
+      snapshot = result;
     }
     return result;
   }
+
+  private String serialize() {
+    StringBuilder result = new StringBuilder();
+    result.append(getScheme()).append("://");
+    result.append(getAuthority().toString());
+    result.append(getPath());
+    if (getQueryString() != null)
+      result.append('?').append(getQueryString().toString());
+    return result.toString();
+  }
 }
@@ -34,13 +34,35 @@ public class ModelHttpHostnameHost extends ModelHttpHost {
   public static final Pattern HOSTNAME =
       Pattern.compile("^[-a-z0-9]+(?:[.][-a-z0-9]+)*$", Pattern.CASE_INSENSITIVE);
 
+  /**
+   * Tests whether the given string is a valid hostname. Equivalent to matching {@link #HOSTNAME},
+   * but without the regular expression machinery.
+   */
+  public static boolean isValidHostname(String s) {
+    int labelLength = 0;
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      if (c == '.') {
+        if (labelLength == 0)
+          return false;
+        labelLength = 0;
+      } else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+          || c == '-') {
+        labelLength = labelLength + 1;
+      } else {
+        return false;
+      }
+    }
+    return labelLength != 0;
+  }
+
   /**
    * Parses a valid DNS hostname. Validates for form only. In particular, does no DNS requests to
    * validate.
    *
    * @throws IllegalArgumentException if the given string is not a valid hostname
    *
-   * @see #HOSTNAME
+   * @see #isValidHostname(String)
    * @see #toString()
    */
   public static ModelHttpHostnameHost fromString(String s) {
@@ -68,9 +90,10 @@ public class ModelHttpHostnameHost extends ModelHttpHost {
   }
 
   public ModelHttpHostnameHost setHostname(String hostname) {
-    if (!HOSTNAME.matcher(hostname).matches())
+    if (!isValidHostname(hostname))
       throw new IllegalArgumentException("hostname must be a valid DNS hostname");
     this.hostname = hostname;
+    modified();
     return this;
   }
 
@@ -20,26 +20,25 @@
 package com.sigpwned.httpmodel.core.model.host;
 
 import java.net.Inet4Address;
-import java.net.InetAddress;
 import java.util.Objects;
 import com.sigpwned.httpmodel.core.model.ModelHttpHost;
-import com.sigpwned.httpmodel.core.org.apache.commons.validator.routines.InetAddressValidator;
+import com.sigpwned.httpmodel.core.util.MoreInetAddresses;
 
 /**
  * Models an IPV4 host
  */
 public class ModelHttpIpV4Host extends ModelHttpHost {
+  /**
+   * Parses a valid IPv4 address of the form a.b.c.d. Does no DNS requests.
+   *
+   * @throws IllegalArgumentException if the given string is not a valid IPv4 address
+   *
+   * @see MoreInetAddresses#parseInet4Address(String)
+   */
   public static ModelHttpIpV4Host fromString(String s) {
-    if (!InetAddressValidator.getInstance().isValidInet4Address(s))
+    Inet4Address address = MoreInetAddresses.parseInet4Address(s);
+    if (address == null)
       throw new IllegalArgumentException("must be a valid IPv4 address of the form a.b.c.d");
-
-    Inet4Address address;
-    try {
-      address = (Inet4Address) InetAddress.getByName(s);
-    } catch (Exception e) {
-      throw new IllegalArgumentException("not a valid IPv4 address", e);
-    }
-
     return of(address);
   }
 
@@ -49,6 +48,12 @@ public class ModelHttpIpV4Host extends ModelHttpHost {
 
   private Inet4Address address;
 
+  /**
+   * The memoized result of {@link #toString()}, or {@code null} if it has not been computed since
+   * the address was last set
+   */
+  private String string;
+
   public ModelHttpIpV4Host(Inet4Address address) {
     super(Type.IPV4);
     setAddress(address);
@@ -65,6 +70,8 @@ public class ModelHttpIpV4Host extends ModelHttpHost {
     if (address == null)
       throw new NullPointerException();
     this.address = address;
+    this.string = null;
+    modified();
     return this;
   }
 
@@ -90,6 +97,8 @@ public class ModelHttpIpV4Host extends ModelHttpHost {
 
   @Override
   public String toString() {
-    return getAddress().getHostAddress();
+    if (string == null)
+      string = getAddress().getHostAddress();
+    return string;
   }
 }
@@ -20,34 +20,29 @@
 package com.sigpwned.httpmodel.core.model.host;
 
 import java.net.Inet6Address;
-import java.net.InetAddress;
 import java.util.Objects;
 import com.sigpwned.httpmodel.core.model.ModelHttpHost;
-import com.sigpwned.httpmodel.core.org.apache.commons.validator.routines.InetAddressValidator;
+import com.sigpwned.httpmodel.core.util.MoreInetAddresses;
 
 /**
- * Validation code is based on Apache Commons Validator InetAddressValidator class.
- *
- * @see <a href=
- *      "https://github.com/apache/commons-validator/blob/master/src/main/java/org/apache/commons/validator/routines/InetAddressValidator.java">https://github.com/apache/commons-validator/blob/master/src/main/java/org/apache/commons/validator/routines/InetAddressValidator.java</a>
+ * Models an IPv6 host
  */
 public class ModelHttpIpV6Host extends ModelHttpHost {
+  /**
+   * Parses a valid IPv6 address surrounded by [ ], e.g., [2001:db8::1]. Does no DNS requests.
+   *
+   * @throws IllegalArgumentException if the given string is not a valid IPv6 host
+   *
+   * @see MoreInetAddresses#parseInet6Address(String)
+   */
   public static ModelHttpIpV6Host fromString(String s) {
-    if (!s.startsWith("[") || !s.endsWith("]"))
+    if (!s.startsWith("[") || !s.endsWith("]") || s.length() < 2)
       throw new IllegalArgumentException("must be a valid IPv6 address surrounded by [ ]");
 
-    s = s.substring(1, s.length() - 1);
-
-    if (!InetAddressValidator.getInstance().isValidInet6Address(s))
+    Inet6Address address = MoreInetAddresses.parseInet6Address(s.substring(1, s.length() - 1));
+    if (address == null)
       throw new IllegalArgumentException("must contain a valid IPv6 address");
 
-    Inet6Address address;
-    try {
-      address = (Inet6Address) InetAddress.getByName(s);
-    } catch (Exception e) {
-      throw new IllegalArgumentException("not a valid IPv6 address", e);
-    }
-
     return of(address);
   }
 
@@ -57,6 +52,12 @@ public class ModelHttpIpV6Host extends ModelHttpHost {
 
   private Inet6Address address;
 
+  /**
+   * The memoized result of {@link #toString()}, or {@code null} if it has not been computed since
+   * the address was last set
+   */
+  private String string;
+
   public ModelHttpIpV6Host(Inet6Address address) {
     super(Type.IPV6);
     setAddress(address);
@@ -73,6 +74,8 @@ public class ModelHttpIpV6Host extends ModelHttpHost {
     if (address == null)
       throw new NullPointerException();
     this.address = address;
+    this.string = null;
+    modified();
     return this;
   }
 
@@ -98,6 +101,8 @@ public class ModelHttpIpV6Host extends ModelHttpHost {
 
   @Override
   public String toString() {
-    return "[" + getAddress().getHostAddress() + "]";
+    if (string == null)
+      string = "[" + getAddress().getHostAddress() + "]";
+    return string;
   }
 }
@@ -33,7 +33,7 @@ public final class EntityInputStreams {
 
   public static int hashCode(EntityInputStream in, InputStreamBufferingStrategy bufferingStrategy)
       throws IOException {
-    in.buffer(bufferingStrategy);
+    in.bufferFiltered(bufferingStrategy);
     byte[] entityHashCode = MoreHashing.sha1(in);
     in.restart();
     return Arrays.hashCode(entityHashCode);
@@ -42,8 +42,8 @@ public final class EntityInputStreams {
   private static final int BUFSIZE = 8 * 1024;
 
   public static boolean contentEquals(EntityInputStream a, EntityInputStream b) throws IOException {
-    a.buffer(InputStreamBufferingStrategy.DEFAULT);
-    b.buffer(InputStreamBufferingStrategy.DEFAULT);
+    a.bufferFiltered(InputStreamBufferingStrategy.DEFAULT);
+    b.bufferFiltered(InputStreamBufferingStrategy.DEFAULT);
     try {
       byte[] abuf = new byte[BUFSIZE];
       byte[] bbuf = new byte[BUFSIZE];
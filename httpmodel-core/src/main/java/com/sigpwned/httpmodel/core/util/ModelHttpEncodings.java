@@ -19,87 +19,300 @@
  */
 package com.sigpwned.httpmodel.core.util;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 /**
  * Implements common encodings in the HTTP protocol.
+ *
+ * <p>
+ * The encoders are driven by per-component tables of the ASCII characters that may appear
+ * unescaped. The methods that return a {@link String} return the given instance when nothing needs
+ * escaping, and the methods that take a {@link StringBuilder} or {@link Appendable} write directly
+ * into it, so callers serializing many values need not allocate per value.
+ * </p>
  */
 public final class ModelHttpEncodings {
   private ModelHttpEncodings() {}
 
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+  /**
+   * The RFC 3986 unreserved characters, which are safe anywhere
+   */
+  private static final boolean[] UNRESERVED = safe("-._~");
+
+  /**
+   * The characters allowed unescaped in an RFC 3986 path segment. Excludes "/", so that the result
+   * is a single segment.
+   */
+  private static final boolean[] PATH_SEGMENT = safe("-._~!$&'()*+,;=:@");
+
+  /**
+   * The characters allowed unescaped in an RFC 3986 query, less the ones with special meaning in a
+   * query parameter name or value, i.e., "&amp;", "=", "+", and "#"
+   */
+  private static final boolean[] QUERY_COMPONENT = safe("-._~!$'()*,;:@/?");
+
+  /**
+   * The characters the application/x-www-form-urlencoded serializer leaves unescaped
+   */
+  private static final boolean[] FORM = safe("*-._");
+
+  private static boolean[] safe(String punctuation) {
+    boolean[] result = new boolean[128];
+    for (char c = '0'; c <= '9'; c++)
+      result[c] = true;
+    for (char c = 'A'; c <= 'Z'; c++)
+      result[c] = true;
+    for (char c = 'a'; c <= 'z'; c++)
+      result[c] = true;
+    for (int i = 0; i < punctuation.length(); i++)
+      result[punctuation.charAt(i)] = true;
+    return result;
+  }
+
   /**
    * URLEncode the given string. The characters 0-9, A-Z, a-z, "-", "_", ".", and "~" all stay the
-   * same. All other characters are percent encoded.
+   * same. All other characters are percent encoded. Returns the given string if no characters need
+   * encoding.
    * 
    * @see <a href=
    *      "https://en.wikipedia.org/wiki/Percent-encoding">https://en.wikipedia.org/wiki/Percent-encoding</a>
    */
   public static String urlencode(String s) {
-    byte[] bs = s.getBytes(StandardCharsets.UTF_8);
-
-    ByteArrayOutputStream out = new ByteArrayOutputStream();
-    for (int i = 0; i < bs.length; i++) {
-      byte b = bs[i];
-      if ((b >= '0' && b <= '9') || (b >= 'A' && b <= 'Z') || (b >= 'a' && b <= 'z') || b == '-'
-          || b == '.' || b == '_' || b == '~') {
-        out.write(b);
-      } else {
-        out.write('%');
-        out.write(urlencode((b & 0xF0) >>> 4));
-        out.write(urlencode(b & 0x0F));
-      }
-    }
+    return encode(s, UNRESERVED, false);
+  }
 
-    return new String(out.toByteArray(), StandardCharsets.US_ASCII);
+  /**
+   * Appends the URLEncoded form of the given string to the given builder
+   *
+   * @see #urlencode(String)
+   */
+  public static StringBuilder urlencode(String s, StringBuilder out) {
+    return encode(s, UNRESERVED, false, out);
   }
 
-  private static byte urlencode(int b) {
-    if (b >= 0 && b <= 9) {
-      return (byte) ('0' + (b - 0));
-    } else if (b >= 10 && b <= 15) {
-      return (byte) ('A' + (b - 10));
-    } else {
-      throw new IllegalArgumentException("value not between 0 and 15");
-    }
+  /**
+   * Appends the URLEncoded form of the given string to the given output
+   *
+   * @see #urlencode(String)
+   */
+  public static <A extends Appendable> A urlencode(String s, A out) throws IOException {
+    if (out instanceof StringBuilder)
+      encode(s, UNRESERVED, false, (StringBuilder) out);
+    else
+      out.append(encode(s, UNRESERVED, false));
+    return out;
+  }
+
+  /**
+   * Percent encodes the given string for use as a single URL path segment. Leaves the RFC 3986
+   * pchar characters unescaped, except "/".
+   */
+  public static String urlencodePathSegment(String s) {
+    return encode(s, PATH_SEGMENT, false);
+  }
+
+  /**
+   * @see #urlencodePathSegment(String)
+   */
+  public static StringBuilder urlencodePathSegment(String s, StringBuilder out) {
+    return encode(s, PATH_SEGMENT, false, out);
+  }
+
+  /**
+   * Percent encodes the given string for use as a query parameter name or value. Leaves the RFC
+   * 3986 query characters unescaped, except "&amp;", "=", "+", and "#".
+   */
+  public static String urlencodeQueryComponent(String s) {
+    return encode(s, QUERY_COMPONENT, false);
+  }
+
+  /**
+   * @see #urlencodeQueryComponent(String)
+   */
+  public static StringBuilder urlencodeQueryComponent(String s, StringBuilder out) {
+    return encode(s, QUERY_COMPONENT, false, out);
+  }
+
+  /**
+   * Encodes the given string per the application/x-www-form-urlencoded serializer. The characters
+   * 0-9, A-Z, a-z, "*", "-", ".", and "_" stay the same, space becomes "+", and all other
+   * characters are percent encoded.
+   *
+   * @see #formdecode(String)
+   */
+  public static String formencode(String s) {
+    return encode(s, FORM, true);
+  }
+
+  /**
+   * @see #formencode(String)
+   */
+  public static StringBuilder formencode(String s, StringBuilder out) {
+    return encode(s, FORM, true, out);
   }
 
   /**
    * URLDecode the given string. Percent encoded sequences are decoded, other characters are just
-   * passed through.
+   * passed through. Returns the given string if it contains no percent encoded sequences.
+   * 
+   * @throws IllegalArgumentException if the string contains an invalid percent encoded sequence
    * 
    * @see <a href=
    *      "https://en.wikipedia.org/wiki/Percent-encoding">https://en.wikipedia.org/wiki/Percent-encoding</a>
    */
   public static String urldecode(String s) {
-    byte[] bs = s.getBytes(StandardCharsets.US_ASCII);
+    return decode(s, false);
+  }
+
+  /**
+   * Decodes the given application/x-www-form-urlencoded string. Like {@link #urldecode(String)},
+   * but also decodes "+" as space.
+   *
+   * @throws IllegalArgumentException if the string contains an invalid percent encoded sequence
+   *
+   * @see #formencode(String)
+   */
+  public static String formdecode(String s) {
+    return decode(s, true);
+  }
+
+  private static String encode(String s, boolean[] safe, boolean spaceAsPlus) {
+    int start = firstUnsafe(s, safe);
+    if (start == s.length())
+      return s;
+    StringBuilder result = new StringBuilder(s.length() + 16);
+    result.append(s, 0, start);
+    encodeTo(s, start, safe, spaceAsPlus, result);
+    return result.toString();
+  }
+
+  private static StringBuilder encode(String s, boolean[] safe, boolean spaceAsPlus,
+      StringBuilder out) {
+    int start = firstUnsafe(s, safe);
+    out.append(s, 0, start);
+    if (start != s.length())
+      encodeTo(s, start, safe, spaceAsPlus, out);
+    return out;
+  }
+
+  private static int firstUnsafe(String s, boolean[] safe) {
+    int length = s.length();
+    for (int i = 0; i < length; i++) {
+      char c = s.charAt(i);
+      if (c >= 128 || !safe[c])
+        return i;
+    }
+    return length;
+  }
+
+  private static void encodeTo(String s, int start, boolean[] safe, boolean spaceAsPlus,
+      StringBuilder out) {
+    int length = s.length();
+    for (int i = start; i < length; i++) {
+      char c = s.charAt(i);
+      if (c < 128) {
+        if (safe[c]) {
+          out.append(c);
+        } else if (c == ' ' && spaceAsPlus) {
+          out.append('+');
+        } else {
+          appendEscaped(c, out);
+        }
+      } else if (c < 0x800) {
+        appendEscaped(0xC0 | (c >> 6), out);
+        appendEscaped(0x80 | (c & 0x3F), out);
+      } else if (Character.isHighSurrogate(c) && i + 1 < length
+          && Character.isLowSurrogate(s.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, s.charAt(i + 1));
+        appendEscaped(0xF0 | (codePoint >> 18), out);
+        appendEscaped(0x80 | ((codePoint >> 12) & 0x3F), out);
+        appendEscaped(0x80 | ((codePoint >> 6) & 0x3F), out);
+        appendEscaped(0x80 | (codePoint & 0x3F), out);
+        i = i + 1;
+      } else if (Character.isSurrogate(c)) {
+        // Unpaired surrogates become "?", as in String.getBytes
+        appendEscaped('?', out);
+      } else {
+        appendEscaped(0xE0 | (c >> 12), out);
+        appendEscaped(0x80 | ((c >> 6) & 0x3F), out);
+        appendEscaped(0x80 | (c & 0x3F), out);
+      }
+    }
+  }
+
+  private static void appendEscaped(int b, StringBuilder out) {
+    out.append('%');
+    out.append(HEX_DIGITS[(b >>> 4) & 0x0F]);
+    out.append(HEX_DIGITS[b & 0x0F]);
+  }
+
+  private static String decode(String s, boolean plusAsSpace) {
+    int length = s.length();
+
+    int start = 0;
+    while (start < length) {
+      char c = s.charAt(start);
+      if (c == '%' || (c == '+' && plusAsSpace))
+        break;
+      start = start + 1;
+    }
+    if (start == length)
+      return s;
 
-    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    // Percent escapes shrink, so this buffer is only ever too small if there is non-ASCII text,
+    // in which case it grows
+    byte[] buf = new byte[Math.max(length, 16)];
+    int size = 0;
 
-    int index = 0;
-    while (index < bs.length) {
-      byte b = bs[index++];
-      if (b == '%') {
-        if (index + 2 > bs.length)
+    for (int i = 0; i < length; i++) {
+      char c = s.charAt(i);
+      if (size + 4 > buf.length)
+        buf = Arrays.copyOf(buf, 2 * buf.length);
+      if (c == '%') {
+        if (i + 3 > length)
           throw new IllegalArgumentException("incomplete percent encoding");
-        byte upper = urldecode(bs[index++]);
-        byte lower = urldecode(bs[index++]);
-        out.write((upper << 4) | (lower << 0));
+        int upper = hexValue(s.charAt(i + 1));
+        int lower = hexValue(s.charAt(i + 2));
+        buf[size++] = (byte) ((upper << 4) | lower);
+        i = i + 2;
+      } else if (c == '+' && plusAsSpace) {
+        buf[size++] = ' ';
+      } else if (c < 128) {
+        buf[size++] = (byte) c;
+      } else if (c < 0x800) {
+        buf[size++] = (byte) (0xC0 | (c >> 6));
+        buf[size++] = (byte) (0x80 | (c & 0x3F));
+      } else if (Character.isHighSurrogate(c) && i + 1 < length
+          && Character.isLowSurrogate(s.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, s.charAt(i + 1));
+        buf[size++] = (byte) (0xF0 | (codePoint >> 18));
+        buf[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+        buf[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        buf[size++] = (byte) (0x80 | (codePoint & 0x3F));
+        i = i + 1;
+      } else if (Character.isSurrogate(c)) {
+        buf[size++] = '?';
       } else {
-        out.write(b);
+        buf[size++] = (byte) (0xE0 | (c >> 12));
+        buf[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        buf[size++] = (byte) (0x80 | (c & 0x3F));
       }
     }
 
-    return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    return new String(buf, 0, size, StandardCharsets.UTF_8);
   }
 
-  private static byte urldecode(int b) {
-    if (b >= '0' && b <= '9') {
-      return (byte) (b - '0');
-    } else if (b >= 'A' && b <= 'F') {
-      return (byte) (b - 'A' + 10);
-    } else if (b >= 'a' && b <= 'f') {
-      return (byte) (b - 'a' + 10);
+  private static int hexValue(char c) {
+    if (c >= '0' && c <= '9') {
+      return c - '0';
+    } else if (c >= 'A' && c <= 'F') {
+      return c - 'A' + 10;
+    } else if (c >= 'a' && c <= 'f') {
+      return c - 'a' + 10;
     } else {
       throw new IllegalArgumentException("invalid hex value");
     }
@@ -19,6 +19,8 @@
  */
 package com.sigpwned.httpmodel.core.util;
 
+import java.util.Arrays;
+
 /**
  * Constants for common HTTP header names
  */
@@ -339,4 +341,119 @@ public final class ModelHttpHeaderNames {
    * {@code "www-authenticate"}
    */
   public static final String WWW_AUTHENTICATE = "www-authenticate";
+
+  /**
+   * All of the header name constants above, which are the names {@link #canonicalize(String)}
+   * interns.
+   */
+  private static final String[] WELL_KNOWN_NAMES = {
+      ACCEPT, ACCEPT_CHARSET, ACCEPT_ENCODING, ACCEPT_LANGUAGE, ACCEPT_RANGES, ACCEPT_PATCH,
+      ACCESS_CONTROL_ALLOW_CREDENTIALS, ACCESS_CONTROL_ALLOW_HEADERS, ACCESS_CONTROL_ALLOW_METHODS,
+      ACCESS_CONTROL_ALLOW_ORIGIN, ACCESS_CONTROL_EXPOSE_HEADERS, ACCESS_CONTROL_MAX_AGE,
+      ACCESS_CONTROL_REQUEST_HEADERS, ACCESS_CONTROL_REQUEST_METHOD, AGE, ALLOW, AUTHORIZATION,
+      CACHE_CONTROL, CONNECTION, CONTENT_BASE, CONTENT_ENCODING, CONTENT_LANGUAGE, CONTENT_LENGTH,
+      CONTENT_LOCATION, CONTENT_TRANSFER_ENCODING, CONTENT_DISPOSITION, CONTENT_MD5, CONTENT_RANGE,
+      CONTENT_TYPE, COOKIE, DATE, ETAG, EXPECT, EXPIRES, FROM, HOST, IF_MATCH, IF_MODIFIED_SINCE,
+      IF_NONE_MATCH, IF_RANGE, IF_UNMODIFIED_SINCE, KEEP_ALIVE, LAST_MODIFIED, LOCATION,
+      MAX_FORWARDS, ORIGIN, PRAGMA, PROXY_AUTHENTICATE, PROXY_AUTHORIZATION, PROXY_CONNECTION,
+      RANGE, REFERER, RETRY_AFTER, SEC_WEBSOCKET_KEY1, SEC_WEBSOCKET_KEY2, SEC_WEBSOCKET_LOCATION,
+      SEC_WEBSOCKET_ORIGIN, SEC_WEBSOCKET_PROTOCOL, SEC_WEBSOCKET_VERSION, SEC_WEBSOCKET_KEY,
+      SEC_WEBSOCKET_ACCEPT, SEC_WEBSOCKET_EXTENSIONS, SERVER, SET_COOKIE, SET_COOKIE2, TE, TRAILER,
+      TRANSFER_ENCODING, UPGRADE, USER_AGENT, VARY, VIA, WARNING, WEBSOCKET_LOCATION,
+      WEBSOCKET_ORIGIN, WEBSOCKET_PROTOCOL, WWW_AUTHENTICATE};
+
+  /**
+   * A perfect hash table of {@link #WELL_KNOWN_NAMES}. Every well-known name hashes to its own slot
+   * under {@link #WELL_KNOWN_SEED}, so a lookup is one hash computation and at most one comparison.
+   */
+  private static final String[] WELL_KNOWN_TABLE = new String[1024];
+
+  private static final int WELL_KNOWN_SEED;
+  static {
+    int seed = 0;
+    while (!fillWellKnownTable(seed))
+      seed = seed + 1;
+    WELL_KNOWN_SEED = seed;
+  }
+
+  private static boolean fillWellKnownTable(int seed) {
+    Arrays.fill(WELL_KNOWN_TABLE, null);
+    for (String name : WELL_KNOWN_NAMES) {
+      int slot = wellKnownSlot(seed, name);
+      if (WELL_KNOWN_TABLE[slot] != null)
+        return false;
+      WELL_KNOWN_TABLE[slot] = name;
+    }
+    return true;
+  }
+
+  /**
+   * Returns the canonical form of the given header name, which is its ASCII lowercase form. If the
+   * name is one of the constants in this class ignoring ASCII case, then that constant is returned,
+   * so canonical well-known names can be compared by reference. Unknown names that are already
+   * lowercase are returned as-is. HTTP header names are ASCII tokens, so non-ASCII characters are
+   * left alone.
+   */
+  public static String canonicalize(String name) {
+    if (name == null)
+      throw new NullPointerException();
+
+    int slot = wellKnownSlot(WELL_KNOWN_SEED, name);
+    if (slot != -1) {
+      String candidate = WELL_KNOWN_TABLE[slot];
+      if (candidate != null && equalsIgnoreAsciiCase(candidate, name))
+        return candidate;
+    }
+
+    return toAsciiLowerCase(name);
+  }
+
+  /**
+   * @return the slot of the given name in {@link #WELL_KNOWN_TABLE} under the given seed, or
+   *         {@code -1} if the name contains a non-ASCII character and so cannot be well-known
+   */
+  private static int wellKnownSlot(int seed, String name) {
+    int h = seed;
+    for (int i = 0; i < name.length(); i++) {
+      char ch = name.charAt(i);
+      if (ch >= 0x80)
+        return -1;
+      h = 31 * h + toAsciiLowerCase(ch);
+    }
+    h = h ^ (h >>> 16);
+    h = h * 0x85EBCA6B;
+    h = h ^ (h >>> 13);
+    return h & (WELL_KNOWN_TABLE.length - 1);
+  }
+
+  private static boolean equalsIgnoreAsciiCase(String lowercase, String s) {
+    if (lowercase.length() != s.length())
+      return false;
+    for (int i = 0; i < s.length(); i++)
+      if (lowercase.charAt(i) != toAsciiLowerCase(s.charAt(i)))
+        return false;
+    return true;
+  }
+
+  private static String toAsciiLowerCase(String s) {
+    int i = 0;
+    while (i < s.length() && !isAsciiUpperCase(s.charAt(i)))
+      i = i + 1;
+    if (i == s.length())
+      return s;
+
+    char[] chars = s.toCharArray();
+    for (; i < chars.length; i++)
+      chars[i] = toAsciiLowerCase(chars[i]);
+
+    return new String(chars);
+  }
+
+  private static char toAsciiLowerCase(char ch) {
+    return isAsciiUpperCase(ch) ? (char) (ch + ('a' - 'A')) : ch;
+  }
+
+  private static boolean isAsciiUpperCase(char ch) {
+    return ch >= 'A' && ch <= 'Z';
+  }
 }
@@ -27,21 +27,21 @@ import com.sigpwned.httpmodel.core.model.ModelHttpMediaType;
 public final class ModelHttpMediaTypes {
   private ModelHttpMediaTypes() {}
 
-  public static final ModelHttpMediaType ANY = ModelHttpMediaType.of("*", "*");
+  public static final ModelHttpMediaType ANY = ModelHttpMediaType.constant("*", "*");
 
-  public static final ModelHttpMediaType ANY_IMAGE = ModelHttpMediaType.of("image", "*");
+  public static final ModelHttpMediaType ANY_IMAGE = ModelHttpMediaType.constant("image", "*");
 
   public static final ModelHttpMediaType APPLICATION_CSV =
-      ModelHttpMediaType.of("application", "csv");
+      ModelHttpMediaType.constant("application", "csv");
 
   public static final ModelHttpMediaType APPLICATION_JSON =
-      ModelHttpMediaType.of("application", "json");
+      ModelHttpMediaType.constant("application", "json");
 
   public static final ModelHttpMediaType APPLICATION_OCTET_STREAM =
-      ModelHttpMediaType.of("application", "octet-stream");
+      ModelHttpMediaType.constant("application", "octet-stream");
 
   public static final ModelHttpMediaType APPLICATION_X_WWW_FORM_URLENCODED =
-      ModelHttpMediaType.of("application", "x-www-form-urlencoded");
+      ModelHttpMediaType.constant("application", "x-www-form-urlencoded");
 
-  public static final ModelHttpMediaType TEXT_PLAIN = ModelHttpMediaType.of("text", "plain");
+  public static final ModelHttpMediaType TEXT_PLAIN = ModelHttpMediaType.constant("text", "plain");
 }
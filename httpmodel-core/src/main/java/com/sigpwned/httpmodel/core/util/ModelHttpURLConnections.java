@@ -69,7 +69,7 @@ public final class ModelHttpURLConnections {
       result.setDoOutput(true);
 
       try (OutputStream out = result.getOutputStream()) {
-        MoreByteStreams.drain(request, out);
+        request.transferTo(out);
       }
     } else {
       result.setDoOutput(false);
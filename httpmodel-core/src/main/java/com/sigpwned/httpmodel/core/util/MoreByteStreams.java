@@ -23,6 +23,11 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import com.sigpwned.httpmodel.core.io.ByteArrayPool;
 import com.sigpwned.httpmodel.core.io.NullOutputStream;
 
 /**
@@ -63,9 +68,82 @@ public final class MoreByteStreams {
    * @throws IOException
    */
   public static void drain(InputStream in, OutputStream out) throws IOException {
-    byte[] buf = new byte[4096];
-    for (int nread = in.read(buf); nread != -1; nread = in.read(buf)) {
-      out.write(buf, 0, nread);
+    transfer(in, out);
+  }
+
+  /**
+   * Reads the data from the given {@link InputStream} and writes it to the given
+   * {@link OutputStream} through a pooled buffer. Does not close either stream.
+   *
+   * @return the number of bytes written
+   * @throws IOException
+   */
+  public static long transfer(InputStream in, OutputStream out) throws IOException {
+    byte[] buf = ByteArrayPool.DEFAULT.acquire();
+    try {
+      long total = 0L;
+      for (int nread = in.read(buf); nread != -1; nread = in.read(buf)) {
+        out.write(buf, 0, nread);
+        total = total + nread;
+      }
+      return total;
+    } finally {
+      ByteArrayPool.DEFAULT.release(buf);
+    }
+  }
+
+  /**
+   * Reads the data from the given {@link InputStream} and writes it to the given
+   * {@link WritableByteChannel} through a pooled buffer. The channel should be in blocking mode.
+   * Does not close either the stream or the channel.
+   *
+   * @return the number of bytes written
+   * @throws IOException
+   */
+  public static long transfer(InputStream in, WritableByteChannel out) throws IOException {
+    byte[] buf = ByteArrayPool.DEFAULT.acquire();
+    try {
+      ByteBuffer wrapped = ByteBuffer.wrap(buf);
+      long total = 0L;
+      for (int nread = in.read(buf); nread != -1; nread = in.read(buf)) {
+        ((Buffer) wrapped).clear();
+        ((Buffer) wrapped).limit(nread);
+        while (wrapped.hasRemaining())
+          out.write(wrapped);
+        total = total + nread;
+      }
+      return total;
+    } finally {
+      ByteArrayPool.DEFAULT.release(buf);
+    }
+  }
+
+  /**
+   * Reads up to {@code dst.remaining()} bytes from the given {@link InputStream} into the given
+   * buffer with a single read of the stream, following the contract of
+   * {@link ReadableByteChannel#read(ByteBuffer)}. Heap buffers are read into directly. Direct
+   * buffers are filled through a pooled array.
+   *
+   * @return the number of bytes read, possibly zero, or -1 if the stream is at its end
+   * @throws IOException
+   */
+  public static int readSome(InputStream in, ByteBuffer dst) throws IOException {
+    if (!dst.hasRemaining())
+      return 0;
+    if (dst.hasArray()) {
+      int nread = in.read(dst.array(), dst.arrayOffset() + dst.position(), dst.remaining());
+      if (nread > 0)
+        ((Buffer) dst).position(dst.position() + nread);
+      return nread;
+    }
+    byte[] buf = ByteArrayPool.DEFAULT.acquire();
+    try {
+      int nread = in.read(buf, 0, Math.min(buf.length, dst.remaining()));
+      if (nread > 0)
+        dst.put(buf, 0, nread);
+      return nread;
+    } finally {
+      ByteArrayPool.DEFAULT.release(buf);
     }
   }
 
@@ -0,0 +1,243 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.core.util;
+
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Helper methods for parsing IP address literals. Unlike {@link InetAddress#getByName(String)},
+ * these methods never perform name lookups and report invalid input by returning {@code null}
+ * instead of throwing, so callers can cheaply test whether a string is an address literal at all.
+ *
+ * @see Inet4Address
+ * @see Inet6Address
+ */
+public final class MoreInetAddresses {
+  private MoreInetAddresses() {}
+
+  private static final int IPV4_BYTES = 4;
+
+  private static final int IPV6_BYTES = 16;
+
+  /**
+   * Parses an IPv4 address in dotted-quad form, e.g., 127.0.0.1. Each part must be a decimal
+   * number from 0 to 255 without leading zeros.
+   *
+   * @return the address, or {@code null} if the given string is not a valid IPv4 address
+   */
+  public static Inet4Address parseInet4Address(String s) {
+    if (s == null)
+      throw new NullPointerException();
+
+    byte[] bytes = new byte[IPV4_BYTES];
+    if (!parseInet4Bytes(s, 0, s.length(), bytes, 0))
+      return null;
+
+    try {
+      return (Inet4Address) InetAddress.getByAddress(bytes);
+    } catch (UnknownHostException e) {
+      // This should never happen, since the address has the right length
+      throw new AssertionError("bad address length", e);
+    }
+  }
+
+  /**
+   * Parses an IPv6 address without surrounding brackets, e.g., 2001:db8::1. The last 32 bits may
+   * be given in IPv4 dotted-quad form, and the address may end with a zone id, e.g., fe80::1%1.
+   *
+   * @return the address, or {@code null} if the given string is not a valid IPv6 address
+   */
+  public static Inet6Address parseInet6Address(String s) {
+    if (s == null)
+      throw new NullPointerException();
+
+    int percent = s.indexOf('%');
+    int end = percent != -1 ? percent : s.length();
+
+    byte[] bytes = new byte[IPV6_BYTES];
+    if (!parseInet6Bytes(s, 0, end, bytes))
+      return null;
+
+    int scopeId;
+    if (percent == -1) {
+      scopeId = -1;
+    } else {
+      scopeId = parseScopeId(s, percent + 1, s.length());
+      if (scopeId == -1) {
+        // Named zones, e.g., fe80::1%eth0, are rare. Let the platform resolve the interface.
+        if (percent + 1 == s.length())
+          return null;
+        try {
+          InetAddress address = InetAddress.getByName(s);
+          return address instanceof Inet6Address ? (Inet6Address) address : null;
+        } catch (Exception e) {
+          return null;
+        }
+      }
+    }
+
+    try {
+      return Inet6Address.getByAddress(null, bytes, scopeId);
+    } catch (UnknownHostException e) {
+      // This should never happen, since the address has the right length
+      throw new AssertionError("bad address length", e);
+    }
+  }
+
+  /**
+   * Parses the dotted-quad IPv4 address in {@code s[start:end)} into {@code out[offset:offset+4)}.
+   */
+  private static boolean parseInet4Bytes(String s, int start, int end, byte[] out, int offset) {
+    int octets = 0;
+    int i = start;
+    while (true) {
+      int octetStart = i;
+      int value = 0;
+      while (i < end && i - octetStart < 3) {
+        int digit = s.charAt(i) - '0';
+        if (digit < 0 || digit > 9)
+          break;
+        value = value * 10 + digit;
+        i = i + 1;
+      }
+
+      int digits = i - octetStart;
+      if (digits == 0 || value > 255)
+        return false;
+      if (digits > 1 && s.charAt(octetStart) == '0')
+        return false;
+
+      out[offset + octets] = (byte) value;
+      octets = octets + 1;
+
+      if (i == end)
+        break;
+      if (octets == IPV4_BYTES || s.charAt(i) != '.')
+        return false;
+      i = i + 1;
+    }
+    return octets == IPV4_BYTES;
+  }
+
+  /**
+   * Parses the IPv6 address in {@code s[start:end)} into {@code out}, which must be zeroed.
+   */
+  private static boolean parseInet6Bytes(String s, int start, int end, byte[] out) {
+    int groups = 0;
+    int compressAt = -1;
+    int i = start;
+
+    if (end - i >= 2 && s.charAt(i) == ':' && s.charAt(i + 1) == ':') {
+      compressAt = 0;
+      i = i + 2;
+    }
+
+    while (i < end) {
+      int groupStart = i;
+      int value = 0;
+      while (i < end && i - groupStart < 5) {
+        int digit = hexDigit(s.charAt(i));
+        if (digit == -1)
+          break;
+        value = value * 16 + digit;
+        i = i + 1;
+      }
+
+      int digits = i - groupStart;
+      if (digits == 0)
+        return false;
+
+      if (i < end && s.charAt(i) == '.') {
+        // The last 32 bits are in IPv4 form
+        if (groups > 6 || !parseInet4Bytes(s, groupStart, end, out, 2 * groups))
+          return false;
+        groups = groups + 2;
+        break;
+      }
+
+      if (digits > 4 || groups == 8)
+        return false;
+      out[2 * groups] = (byte) (value >>> 8);
+      out[2 * groups + 1] = (byte) value;
+      groups = groups + 1;
+
+      if (i == end)
+        break;
+      if (s.charAt(i) != ':')
+        return false;
+      i = i + 1;
+
+      if (i < end && s.charAt(i) == ':') {
+        if (compressAt != -1)
+          return false;
+        compressAt = groups;
+        i = i + 1;
+      } else if (i == end) {
+        // A single trailing colon
+        return false;
+      }
+    }
+
+    if (compressAt == -1)
+      return groups == 8;
+    if (groups > 7)
+      return false;
+
+    // Move the groups after the :: to the end, and zero the gap
+    int tail = 2 * (groups - compressAt);
+    System.arraycopy(out, 2 * compressAt, out, IPV6_BYTES - tail, tail);
+    for (int j = 2 * compressAt; j < IPV6_BYTES - tail; j++)
+      out[j] = 0;
+
+    return true;
+  }
+
+  /**
+   * @return the value of the given ASCII hex digit, or -1 if it is not one
+   */
+  private static int hexDigit(char c) {
+    if (c >= '0' && c <= '9')
+      return c - '0';
+    if (c >= 'a' && c <= 'f')
+      return c - 'a' + 10;
+    if (c >= 'A' && c <= 'F')
+      return c - 'A' + 10;
+    return -1;
+  }
+
+  /**
+   * @return the numeric scope id in {@code s[start:end)}, or -1 if it is not a decimal number
+   */
+  private static int parseScopeId(String s, int start, int end) {
+    if (start == end || end - start > 9)
+      return -1;
+    int result = 0;
+    for (int i = start; i < end; i++) {
+      int digit = s.charAt(i) - '0';
+      if (digit < 0 || digit > 9)
+        return -1;
+      result = result * 10 + digit;
+    }
+    return result;
+  }
+}
@@ -19,15 +19,19 @@
  */
 package com.sigpwned.httpmodel.core.util;
 
+import java.util.HashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
 import com.sigpwned.httpmodel.core.model.PropertiesBearing;
 
 public final class MorePropertiesBearing {
   private MorePropertiesBearing() {}
 
   public static Map<String, Object> toMap(PropertiesBearing props) {
-    return props.getPropertyNames().stream()
-        .collect(Collectors.toMap(s -> s, s -> props.getProperty(s).get()));
+    Set<String> names = props.getPropertyNames();
+    Map<String, Object> result = new HashMap<>(Math.max(16, (int) (names.size() / 0.75f) + 1));
+    for (String name : names)
+      result.put(name, props.getProperty(name).get());
+    return result;
   }
 }
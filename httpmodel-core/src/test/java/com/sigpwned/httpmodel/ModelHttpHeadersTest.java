@@ -0,0 +1,154 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2026 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Random;
+import org.junit.Test;
+import com.sigpwned.httpmodel.core.model.ModelHttpHeaders;
+import com.sigpwned.httpmodel.core.model.ModelHttpHeaders.Header;
+
+public class ModelHttpHeadersTest {
+  @Test
+  public void shouldFindHeadersByNameIgnoringCase() {
+    ModelHttpHeaders headers = new ModelHttpHeaders(asList(Header.of("Alpha", "1"),
+        Header.of("bravo", "2"), Header.of("ALPHA", "3")));
+
+    assertThat(headers.findFirstHeaderValueByName("alpha"), is(Optional.of("1")));
+    assertThat(headers.findAllHeaderValuesByName("aLpHa"), is(asList("1", "3")));
+    assertThat(headers.findFirstHeaderValueByName("charlie"), is(Optional.empty()));
+    assertThat(headers.findAllHeaderValuesByName("charlie"), is(emptyList()));
+  }
+
+  @Test
+  public void shouldKeepLookupsConsistentAfterMutation() {
+    ModelHttpHeaders headers = new ModelHttpHeaders();
+    headers.addHeaderLast("alpha", "1");
+    headers.addHeaderLast("bravo", "2");
+    headers.addHeaderLast("alpha", "3");
+    headers.addHeaderFirst("alpha", "0");
+    headers.addHeaderLast("charlie", "4");
+
+    assertThat(headers.findAllHeaderValuesByName("alpha"), is(asList("0", "1", "3")));
+
+    headers.removeFirstHeader("alpha");
+    assertThat(headers.findAllHeaderValuesByName("alpha"), is(asList("1", "3")));
+    assertThat(headers.findFirstHeaderValueByName("charlie"), is(Optional.of("4")));
+
+    headers.setOnlyHeader("alpha", "5");
+    assertThat(headers.getHeaders(),
+        is(asList(Header.of("bravo", "2"), Header.of("charlie", "4"), Header.of("alpha", "5"))));
+    assertThat(headers.findFirstHeaderValueByName("bravo"), is(Optional.of("2")));
+    assertThat(headers.findFirstHeaderValueByName("charlie"), is(Optional.of("4")));
+
+    headers.removeAllHeaders("bravo");
+    assertThat(headers.getHeaders(), is(asList(Header.of("charlie", "4"), Header.of("alpha", "5"))));
+    assertThat(headers.findFirstHeaderValueByName("alpha"), is(Optional.of("5")));
+
+    headers.clear();
+    assertThat(headers.isEmpty(), is(true));
+    assertThat(headers.findFirstHeaderValueByName("alpha"), is(Optional.empty()));
+  }
+
+  @Test
+  public void shouldBehaveLikeHeaderListWhenGrown() {
+    List<Header> expected = new ArrayList<>();
+    ModelHttpHeaders headers = new ModelHttpHeaders();
+    for (int i = 0; i < 100; i++) {
+      expected.add(Header.of("x-header-" + (i % 7), Integer.toString(i)));
+      headers.addHeaderLast("X-Header-" + (i % 7), Integer.toString(i));
+    }
+
+    assertThat(headers.getHeaders(), is(expected));
+    assertThat(headers, is(new ModelHttpHeaders(expected)));
+    assertThat(headers.hashCode(), is(new ModelHttpHeaders(expected).hashCode()));
+    assertThat(headers.hashCode(), is(Objects.hash(expected)));
+    assertThat(headers.findFirstHeaderValueByName("x-header-3"), is(Optional.of("3")));
+  }
+
+  @Test
+  public void shouldCopyIndependently() {
+    ModelHttpHeaders original = new ModelHttpHeaders();
+    original.addHeaderLast("alpha", "1");
+
+    ModelHttpHeaders copy = original.toBuilder().addHeaderLast("bravo", "2").build();
+    original.addHeaderLast("charlie", "3");
+
+    assertThat(copy.getHeaders(), is(asList(Header.of("alpha", "1"), Header.of("bravo", "2"))));
+    assertThat(original.getHeaders(),
+        is(asList(Header.of("alpha", "1"), Header.of("charlie", "3"))));
+  }
+
+  @Test
+  public void shouldBehaveLikeHeaderListUnderRandomMutations() {
+    Random random = new Random(0L);
+    List<Header> expected = new ArrayList<>();
+    ModelHttpHeaders headers = new ModelHttpHeaders();
+    for (int step = 0; step < 20000; step++) {
+      String name = "x-header-" + random.nextInt(8);
+      String value = Integer.toString(step);
+      switch (random.nextInt(7)) {
+        case 0:
+          expected.add(0, Header.of(name, value));
+          headers.addHeaderFirst(name, value);
+          break;
+        case 1:
+        case 2:
+          expected.add(Header.of(name, value));
+          headers.addHeaderLast(name, value);
+          break;
+        case 3:
+          expected.stream().filter(h -> h.getName().equals(name)).findFirst()
+              .ifPresent(expected::remove);
+          headers.removeFirstHeader(name);
+          break;
+        case 4:
+          expected.removeIf(h -> h.getName().equals(name));
+          headers.removeAllHeaders(name);
+          break;
+        case 5:
+          expected.removeIf(h -> h.getName().equals(name));
+          expected.add(Header.of(name, value));
+          headers.setOnlyHeader(name, value);
+          break;
+        default:
+          // Mutating a copy must not disturb the original
+          new ModelHttpHeaders(headers).addHeaderFirst(name, value).removeAllHeaders(name);
+          break;
+      }
+
+      assertThat(headers.getHeaders(), is(expected));
+      assertThat(headers.findAllHeaderValuesByName(name), is(expected.stream()
+          .filter(h -> h.getName().equals(name)).map(Header::getValue).collect(toList())));
+      if (step % 100 == 0) {
+        assertThat(headers, is(new ModelHttpHeaders(expected)));
+        assertThat(headers.hashCode(), is(Objects.hash(expected)));
+      }
+    }
+  }
+}
@@ -20,10 +20,15 @@
 package com.sigpwned.httpmodel;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.nio.charset.StandardCharsets;
 import org.junit.Test;
 import com.sigpwned.httpmodel.core.model.ModelHttpMediaType;
+import com.sigpwned.httpmodel.core.util.ModelHttpMediaTypes;
 
 public class ModelHttpMediaTypeTest {
   @Test
@@ -55,4 +60,46 @@ public class ModelHttpMediaTypeTest {
 
     assertThat(contentType.toString(), is("text/plain; charset=UTF-8"));
   }
+
+  @Test
+  public void shouldInternParsedMediaTypes() {
+    assertThat(ModelHttpMediaType.fromString("Application/JSON"),
+        sameInstance(ModelHttpMediaTypes.APPLICATION_JSON));
+    assertThat(ModelHttpMediaType.fromString("text/plain; charset=utf-8"),
+        sameInstance(ModelHttpMediaType.fromString("text/plain; charset=UTF-8")));
+  }
+
+  @Test
+  public void shouldKeepConstantsInternedWhenCacheOverflows() {
+    for (int i = 0; i < 1000; i++)
+      ModelHttpMediaType.of("x-overflow", "t" + i);
+    assertThat(ModelHttpMediaType.of("application", "json"),
+        sameInstance(ModelHttpMediaTypes.APPLICATION_JSON));
+    assertThat(ModelHttpMediaType.fromString("application/octet-stream"),
+        sameInstance(ModelHttpMediaTypes.APPLICATION_OCTET_STREAM));
+  }
+
+  /**
+   * Loads fresh copies of the classes, so the cache is already full when the constants are created
+   */
+  @Test
+  public void shouldCreateConstantsWhenCacheIsFullBeforeTheyLoad() throws Exception {
+    URL classes = ModelHttpMediaType.class.getProtectionDomain().getCodeSource().getLocation();
+    for (int size : new int[] {0, 250, 255, 256, 1000}) {
+      try (URLClassLoader loader = new URLClassLoader(new URL[] {classes}, null)) {
+        Class<?> mediaType = loader.loadClass(ModelHttpMediaType.class.getName());
+        Method of = mediaType.getMethod("of", String.class, String.class);
+        for (int i = 0; i < size; i++)
+          of.invoke(null, "x-overflow", "t" + i);
+
+        Class<?> mediaTypes = loader.loadClass(ModelHttpMediaTypes.class.getName());
+        Object textPlain = mediaTypes.getField("TEXT_PLAIN").get(null);
+        assertThat(of.invoke(null, "text", "plain"), sameInstance(textPlain));
+
+        for (int i = 0; i < 1000; i++)
+          of.invoke(null, "x-overflow", "u" + i);
+        assertThat(of.invoke(null, "text", "plain"), sameInstance(textPlain));
+      }
+    }
+  }
 }
@@ -21,9 +21,17 @@ package com.sigpwned.httpmodel;
 
 import static java.util.Arrays.asList;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.Test;
 import com.sigpwned.httpmodel.core.model.ModelHttpQueryString;
+import com.sigpwned.httpmodel.core.model.ModelHttpQueryString.Parameter;
 
 public class ModelHttpQueryStringTest {
   @Test
@@ -34,4 +42,95 @@ public class ModelHttpQueryStringTest {
 
     assertThat(queryString.toString(), is("alpha=bravo%21&charlie=delta%20echo"));
   }
+
+  @Test
+  public void shouldCopyIndependently() {
+    final ModelHttpQueryString original = ModelHttpQueryString.fromString("alpha=1");
+    final ModelHttpQueryString copy = original.toBuilder().addParameterLast("bravo", "2").build();
+    original.removeAllParameters("alpha");
+
+    assertThat(copy.toString(), is("alpha=1&bravo=2"));
+    assertThat(original.isEmpty(), is(true));
+  }
+
+  @Test
+  public void shouldKeepRawStringUntilModified() {
+    final String raw = "alpha=bravo+charlie&delta&&echo=%7e";
+    final ModelHttpQueryString queryString = ModelHttpQueryString.fromString(raw);
+
+    assertThat(queryString.toString(), sameInstance(raw));
+    assertThat(queryString.findFirstParameterValueByName("echo"), is(Optional.of("~")));
+    assertThat(queryString.toString(), sameInstance(raw));
+    assertThat(queryString,
+        is(ModelHttpQueryString.fromString("alpha=bravo%2Bcharlie&delta=&echo=~")));
+
+    queryString.removeAllParameters("delta");
+    assertThat(queryString.toString(), is("alpha=bravo%2Bcharlie&echo=~"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectInvalidPercentEncodingEagerly() {
+    ModelHttpQueryString.fromString("alpha=%zz");
+  }
+
+  @Test
+  public void shouldFindParametersFromConcurrentReaders() throws Exception {
+    StringBuilder raw = new StringBuilder();
+    for (int i = 0; i < 64; i++)
+      raw.append(i == 0 ? "" : "&").append("p").append(i).append('=').append(i);
+    int expectedHash = ModelHttpQueryString.fromString(raw.toString()).hashCode();
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      for (int round = 0; round < 100; round++) {
+        ModelHttpQueryString queryString = ModelHttpQueryString.fromString(raw.toString());
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+          results.add(executor.submit(() -> {
+            if (queryString.hashCode() != expectedHash)
+              return false;
+            for (int i = 0; i < 64; i++)
+              if (!queryString.findFirstParameterValueByName("p" + i)
+                  .equals(Optional.of(Integer.toString(i))))
+                return false;
+            return true;
+          }));
+        }
+        for (Future<Boolean> result : results)
+          assertThat(result.get(), is(true));
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void shouldKeepLookupsConsistentWhenGrown() {
+    List<Parameter> expected = new ArrayList<>();
+    ModelHttpQueryString queryString = new ModelHttpQueryString();
+    for (int i = 0; i < 100; i++) {
+      Parameter p = Parameter.of((i % 2 == 0 ? "facet" : "FACET") + (i % 7), Integer.toString(i));
+      expected.add(p);
+      queryString.addParameterLast(p);
+    }
+    queryString.addParameterFirst("facet3", "first");
+    expected.add(0, Parameter.of("facet3", "first"));
+
+    assertThat(queryString.getParameters(), is(expected));
+    assertThat(queryString.findFirstParameterValueByName("facet3"), is(Optional.of("first")));
+    assertThat(queryString.findFirstParameterValueByName("FACET3"), is(Optional.of("3")));
+    assertThat(queryString.findAllParameterValuesByName("facet0"),
+        is(asList("0", "14", "28", "42", "56", "70", "84", "98")));
+    assertThat(queryString.findFirstParameterByName("facet7"), is(Optional.empty()));
+
+    queryString.removeFirstParameter("Facet3");
+    expected.remove(0);
+    assertThat(queryString.getParameters(), is(expected));
+
+    queryString.removeAllParameters("fAcEt0");
+    expected.removeIf(p -> p.getName().equalsIgnoreCase("facet0"));
+    assertThat(queryString.getParameters(), is(expected));
+    assertThat(queryString.findAllParameterValuesByName("facet0"), is(asList()));
+    assertThat(queryString.findFirstParameterValueByName("facet1"), is(Optional.of("8")));
+  }
 }
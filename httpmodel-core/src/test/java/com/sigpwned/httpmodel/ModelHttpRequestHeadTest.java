@@ -0,0 +1,55 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import java.io.IOException;
+import java.util.Optional;
+import org.junit.Test;
+import com.sigpwned.httpmodel.core.model.ModelHttpHeaders;
+import com.sigpwned.httpmodel.core.model.ModelHttpRequest;
+import com.sigpwned.httpmodel.core.model.ModelHttpRequestHead;
+import com.sigpwned.httpmodel.core.model.ModelHttpUrl;
+import com.sigpwned.httpmodel.core.util.ModelHttpMethods;
+import com.sigpwned.httpmodel.core.util.ModelHttpVersions;
+
+public class ModelHttpRequestHeadTest {
+  @Test
+  public void shouldCopyPropertiesIndependently() throws IOException {
+    ModelHttpRequestHead head = new ModelHttpRequestHead(ModelHttpVersions.HTTP_1_1,
+        ModelHttpMethods.GET, ModelHttpUrl.fromString("http://example.com/"),
+        new ModelHttpHeaders());
+    head.setProperty("alpha", "1");
+
+    try (ModelHttpRequest request = head.toRequest()) {
+      ModelHttpRequestHead copy = ModelHttpRequestHead.fromRequest(request);
+      request.setProperty("alpha", "2");
+      copy.setProperty("bravo", "3");
+
+      assertThat(head.getProperty("alpha"), is(Optional.of("1")));
+      assertThat(request.getProperty("alpha"), is(Optional.of("2")));
+      assertThat(request.getProperties().containsKey("bravo"), is(false));
+      assertThat(copy.getProperty("alpha"), is(Optional.of("1")));
+      assertThat(copy.getProperty("bravo"), is(Optional.of("3")));
+      assertThat(head.toBuilder().build().getPropertyNames().contains("alpha"), is(true));
+    }
+  }
+}
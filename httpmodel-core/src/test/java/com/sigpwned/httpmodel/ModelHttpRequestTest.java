@@ -0,0 +1,114 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import org.junit.Test;
+import com.sigpwned.httpmodel.core.io.DeflaterPool;
+import com.sigpwned.httpmodel.core.io.InputStreamBufferingStrategy;
+import com.sigpwned.httpmodel.core.model.ModelHttpHeaders;
+import com.sigpwned.httpmodel.core.model.ModelHttpRequest;
+import com.sigpwned.httpmodel.core.model.ModelHttpUrl;
+import com.sigpwned.httpmodel.core.util.ModelHttpHeaderNames;
+import com.sigpwned.httpmodel.core.util.ModelHttpMethods;
+import com.sigpwned.httpmodel.core.util.ModelHttpVersions;
+import com.sigpwned.httpmodel.core.util.MoreByteStreams;
+
+public class ModelHttpRequestTest {
+  @Test
+  public void shouldCompressEntityAndSetContentEncoding() throws IOException {
+    byte[] data = new byte[10000];
+    for (int i = 0; i < data.length; i++)
+      data[i] = (byte) (i % 17);
+
+    try (ModelHttpRequest request = request(data)) {
+      assertThat(request.compress(), is(true));
+      assertThat(
+          request.getHeaders().findFirstHeaderValueByName(ModelHttpHeaderNames.CONTENT_ENCODING),
+          is(Optional.of("gzip")));
+      assertThat(
+          request.getHeaders().findFirstHeaderValueByName(ModelHttpHeaderNames.CONTENT_LENGTH),
+          is(Optional.empty()));
+      try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(request.toByteArray()))) {
+        assertThat(MoreByteStreams.toByteArray(in), is(data));
+      }
+    }
+  }
+
+  @Test
+  public void shouldNotCompressEntityBelowThreshold() throws IOException {
+    byte[] data = new byte[100];
+    try (ModelHttpRequest request = request(data)) {
+      assertThat(request.compress("gzip", Deflater.DEFAULT_COMPRESSION, 101L), is(false));
+      assertThat(
+          request.getHeaders().findFirstHeaderValueByName(ModelHttpHeaderNames.CONTENT_ENCODING),
+          is(Optional.empty()));
+      assertThat(request.toByteArray(), is(data));
+    }
+  }
+
+  @Test
+  public void shouldNotCompressEncodedEntity() throws IOException {
+    byte[] data = new byte[10000];
+    try (ModelHttpRequest request = request(data)) {
+      request.getHeaders().addHeaderLast(ModelHttpHeaderNames.CONTENT_ENCODING, "br");
+      assertThat(request.compress(), is(false));
+      assertThat(request.toByteArray(), is(data));
+    }
+  }
+
+  @Test
+  public void shouldReturnDeflatersToPoolOnRestart() throws IOException {
+    byte[] data = new byte[10000];
+    for (int i = 0; i < data.length; i++)
+      data[i] = (byte) (i % 17);
+
+    long hits = DeflaterPool.NOWRAP.getHitCount();
+    long misses = DeflaterPool.NOWRAP.getMissCount();
+    try (ModelHttpRequest request = request(data)) {
+      request.buffer(InputStreamBufferingStrategy.DEFAULT);
+      assertThat(request.compress(), is(true));
+      byte[] compressed = request.toByteArray();
+      for (int i = 0; i < 3; i++) {
+        request.restart();
+        assertThat(request.toByteArray(), is(compressed));
+      }
+    }
+
+    // Every restart reuses the deflater the previous pass returned
+    assertThat(DeflaterPool.NOWRAP.getHitCount() - hits >= 3L, is(true));
+    assertThat(DeflaterPool.NOWRAP.getMissCount() - misses <= 1L, is(true));
+    assertThat(DeflaterPool.NOWRAP.getPooledCount() >= 1, is(true));
+  }
+
+  private static ModelHttpRequest request(byte[] entity) throws IOException {
+    ModelHttpHeaders headers = new ModelHttpHeaders();
+    headers.addHeaderLast(ModelHttpHeaderNames.CONTENT_LENGTH, Integer.toString(entity.length));
+    return new ModelHttpRequest(ModelHttpVersions.HTTP_1_1, ModelHttpMethods.POST,
+        ModelHttpUrl.fromString("http://example.com/"), headers, new ByteArrayInputStream(entity));
+  }
+}
@@ -0,0 +1,187 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.junit.Test;
+import com.sigpwned.httpmodel.core.io.ByteArrayPool;
+import com.sigpwned.httpmodel.core.io.InflaterPool;
+import com.sigpwned.httpmodel.core.io.InputStreamBufferer;
+import com.sigpwned.httpmodel.core.io.InputStreamBufferingStrategy;
+import com.sigpwned.httpmodel.core.model.ModelHttpHeaders;
+import com.sigpwned.httpmodel.core.model.ModelHttpMediaType;
+import com.sigpwned.httpmodel.core.model.ModelHttpResponse;
+import com.sigpwned.httpmodel.core.util.ModelHttpHeaderNames;
+import com.sigpwned.httpmodel.core.util.MoreByteStreams;
+
+public class ModelHttpResponseTest {
+  @Test
+  public void shouldTrackContentTypeChanges() throws IOException {
+    ModelHttpHeaders headers = new ModelHttpHeaders();
+    headers.addHeaderLast("Content-Type", "text/plain");
+
+    try (ModelHttpResponse response =
+        new ModelHttpResponse(200, headers, new ByteArrayInputStream(new byte[] {1}))) {
+      ModelHttpMediaType contentType = response.getContentType().get();
+      assertThat(contentType, is(ModelHttpMediaType.of("text", "plain")));
+      assertThat(response.getContentType().get(), sameInstance(contentType));
+
+      headers.setOnlyHeader(ModelHttpHeaderNames.CONTENT_TYPE, "application/json");
+      assertThat(response.getContentType(),
+          is(Optional.of(ModelHttpMediaType.of("application", "json"))));
+
+      headers.removeAllHeaders(ModelHttpHeaderNames.CONTENT_TYPE);
+      assertThat(response.getContentType(), is(Optional.empty()));
+    }
+  }
+
+  @Test
+  public void shouldBufferUsingContentLength() throws IOException {
+    InputStreamBufferingStrategy strategy =
+        () -> InputStreamBufferer.newDefaultInstance(16, new ByteArrayPool(8, 4));
+
+    for (int length : new int[] {5, 100}) {
+      try (ModelHttpResponse response = response(length, new byte[length])) {
+        response.buffer(strategy);
+        assertThat(response.length(), is(OptionalLong.of(length)));
+        assertThat(MoreByteStreams.toByteArray(response).length, is(length));
+      }
+    }
+  }
+
+  @Test
+  public void shouldAcceptEmptyEntityDespiteContentLength() throws IOException {
+    try (ModelHttpResponse response = response(5, new byte[0])) {
+      response.buffer(InputStreamBufferingStrategy.DEFAULT);
+      assertThat(response.length(), is(OptionalLong.of(0L)));
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void shouldRejectEntityShorterThanContentLength() throws IOException {
+    try (ModelHttpResponse response = response(5, new byte[3])) {
+      response.buffer(InputStreamBufferingStrategy.DEFAULT);
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void shouldRejectEntityLongerThanContentLength() throws IOException {
+    try (ModelHttpResponse response = response(5, new byte[6])) {
+      response.buffer(InputStreamBufferingStrategy.DEFAULT);
+    }
+  }
+
+  @Test
+  public void shouldBufferDecodedEntityOnce() throws IOException {
+    byte[] data = new byte[50000];
+    for (int i = 0; i < data.length; i++)
+      data[i] = (byte) (i % 7);
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+      out.write(data);
+    }
+
+    AtomicInteger decodes = new AtomicInteger(0);
+    try (ModelHttpResponse response = response(compressed.size(), compressed.toByteArray())) {
+      response.buffer(InputStreamBufferingStrategy.DEFAULT);
+      response.decode(in -> {
+        decodes.incrementAndGet();
+        return new GZIPInputStream(in);
+      });
+      assertThat(response.length(), is(OptionalLong.empty()));
+
+      assertThat(response.bufferFiltered(InputStreamBufferingStrategy.DEFAULT), is(true));
+      assertThat(response.length(), is(OptionalLong.of(data.length)));
+      for (int i = 0; i < 3; i++) {
+        response.restart();
+        assertThat(MoreByteStreams.toByteArray(response), is(data));
+      }
+    }
+
+    assertThat(decodes.get(), is(1));
+  }
+
+  @Test
+  public void shouldDecodeSupportedContentCodings() throws IOException {
+    byte[] data = new byte[10000];
+    for (int i = 0; i < data.length; i++)
+      data[i] = (byte) (i % 13);
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+      out.write(data);
+    }
+
+    try (ModelHttpResponse response = response(compressed.size(), compressed.toByteArray())) {
+      response.getHeaders().addHeaderLast(ModelHttpHeaderNames.CONTENT_ENCODING, "br, gzip");
+      response.decode();
+      assertThat(
+          response.getHeaders().findFirstHeaderValueByName(ModelHttpHeaderNames.CONTENT_ENCODING),
+          is(Optional.of("br")));
+      assertThat(response.getHeaders()
+          .findFirstHeaderValueByName(ModelHttpHeaderNames.CONTENT_LENGTH), is(Optional.empty()));
+      assertThat(MoreByteStreams.toByteArray(response), is(data));
+    }
+  }
+
+  @Test
+  public void shouldReturnInflatersToPoolOnRestart() throws IOException {
+    byte[] data = new byte[10000];
+    for (int i = 0; i < data.length; i++)
+      data[i] = (byte) (i % 11);
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+      out.write(data);
+    }
+
+    long hits = InflaterPool.NOWRAP.getHitCount();
+    long misses = InflaterPool.NOWRAP.getMissCount();
+    try (ModelHttpResponse response = response(compressed.size(), compressed.toByteArray())) {
+      response.getHeaders().addHeaderLast(ModelHttpHeaderNames.CONTENT_ENCODING, "gzip");
+      response.buffer(InputStreamBufferingStrategy.DEFAULT);
+      response.decode();
+      assertThat(MoreByteStreams.toByteArray(response), is(data));
+      for (int i = 0; i < 3; i++) {
+        response.restart();
+        assertThat(MoreByteStreams.toByteArray(response), is(data));
+      }
+    }
+
+    // Every restart reuses the inflater the previous pass returned
+    assertThat(InflaterPool.NOWRAP.getHitCount() - hits >= 3L, is(true));
+    assertThat(InflaterPool.NOWRAP.getMissCount() - misses <= 1L, is(true));
+    assertThat(InflaterPool.NOWRAP.getPooledCount() >= 1, is(true));
+  }
+
+  private static ModelHttpResponse response(int contentLength, byte[] entity) throws IOException {
+    ModelHttpHeaders headers = new ModelHttpHeaders();
+    headers.addHeaderLast("Content-Length", Integer.toString(contentLength));
+    return new ModelHttpResponse(200, headers, new ByteArrayInputStream(entity));
+  }
+}
@@ -22,8 +22,19 @@ package com.sigpwned.httpmodel.entity;
 import static java.util.Arrays.asList;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.Test;
 import com.sigpwned.httpmodel.core.entity.FormDataModelHttpEntity;
+import com.sigpwned.httpmodel.core.entity.FormDataParser;
+import com.sigpwned.httpmodel.core.io.BufferedInputStream;
+import com.sigpwned.httpmodel.core.model.ModelHttpHeaders;
+import com.sigpwned.httpmodel.core.model.ModelHttpResponse;
+import com.sigpwned.httpmodel.core.util.MoreByteStreams;
 
 public class FormDataModelHttpTest {
   @Test
@@ -39,4 +50,46 @@ public class FormDataModelHttpTest {
         FormDataModelHttpEntity.Entry.of("charlie", "delta echo"))).toString();
     assertThat(string, is("alpha=bravo%21&charlie=delta%20echo"));
   }
+
+  @Test
+  public void shouldWriteSameBytesAsInputStream() throws IOException {
+    List<FormDataModelHttpEntity.Entry> entries = new ArrayList<>();
+    for (int i = 0; i < 5000; i++)
+      entries.add(FormDataModelHttpEntity.Entry.of("name " + i, "value & " + i));
+    FormDataModelHttpEntity entity = FormDataModelHttpEntity.of(entries);
+    byte[] expected = entity.toString().getBytes(StandardCharsets.UTF_8);
+
+    ByteArrayOutputStream written = new ByteArrayOutputStream();
+    entity.writeTo(written);
+    assertThat(written.toByteArray(), is(expected));
+
+    for (int i = 0; i < 2; i++) {
+      try (BufferedInputStream in = entity.toInputStream()) {
+        assertThat(MoreByteStreams.toByteArray(in), is(expected));
+      }
+    }
+
+    written.reset();
+    entity.writeTo(written);
+    assertThat(written.toByteArray(), is(expected));
+  }
+
+  @Test
+  public void shouldParseLargeEntityOnlyWithinGivenLimits() throws IOException {
+    List<FormDataModelHttpEntity.Entry> entries = new ArrayList<>();
+    for (int i = 0; i < FormDataParser.DEFAULT_MAX_ENTRIES + 500; i++)
+      entries.add(FormDataModelHttpEntity.Entry.of("name" + i, "value" + i));
+    FormDataModelHttpEntity entity = FormDataModelHttpEntity.of(entries);
+
+    try (ModelHttpResponse response = new ModelHttpResponse(200, new ModelHttpHeaders(), entity)) {
+      assertThat(FormDataModelHttpEntity.fromEntity(response), is(entity));
+    }
+
+    try (ModelHttpResponse response = new ModelHttpResponse(200, new ModelHttpHeaders(), entity)) {
+      FormDataModelHttpEntity.fromEntity(response, new FormDataParser());
+      fail("expected limit to be enforced");
+    } catch (IOException e) {
+      // Expected
+    }
+  }
 }
@@ -0,0 +1,82 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.entity;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import com.sigpwned.httpmodel.core.entity.FormDataModelHttpEntity;
+import com.sigpwned.httpmodel.core.entity.FormDataModelHttpEntity.Entry;
+import com.sigpwned.httpmodel.core.entity.FormDataParser;
+
+public class FormDataParserTest {
+  @Test
+  public void shouldParseLikeFromString() throws IOException {
+    String form = "alpha=bravo%21&&charlie=delta%20echo&foxtrot&golf=&=hotel&";
+    assertThat(new FormDataParser().parse(stream(form)),
+        is(FormDataModelHttpEntity.fromString(form).getEntries()));
+  }
+
+  @Test
+  public void shouldParseEntriesSpanningChunks() throws IOException {
+    StringBuilder form = new StringBuilder();
+    List<Entry> expected = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      char[] value = new char[i * 397];
+      Arrays.fill(value, 'x');
+      expected.add(Entry.of("n" + i, new String(value)));
+      form.append(i == 0 ? "" : "&").append("n").append(i).append("=").append(value);
+    }
+
+    List<Entry> entries = new ArrayList<>();
+    new FormDataParser().parse(Channels.newChannel(stream(form.toString())), entries::add);
+
+    assertThat(entries, is(expected));
+  }
+
+  @Test(expected = IOException.class)
+  public void shouldRejectTooManyEntries() throws IOException {
+    new FormDataParser(2, 100).parse(stream("a=1&b=2&c=3"));
+  }
+
+  @Test(expected = IOException.class)
+  public void shouldRejectTooLargeEntry() throws IOException {
+    new FormDataParser(10, 8).parse(stream("a=1&b=123456789"));
+  }
+
+  @Test
+  public void shouldAcceptEntriesAtTheLimits() throws IOException {
+    assertThat(new FormDataParser(2, 3).parse(stream("a=1&b=2&")),
+        is(asList(Entry.of("a", "1"), Entry.of("b", "2"))));
+  }
+
+  private static InputStream stream(String s) {
+    return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,144 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2026 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.io;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Random;
+import org.junit.Test;
+import com.sigpwned.httpmodel.core.io.BufferManager;
+import com.sigpwned.httpmodel.core.io.EntityInputStream;
+import com.sigpwned.httpmodel.core.io.InputStreamBufferingStrategy;
+import com.sigpwned.httpmodel.core.util.MoreByteStreams;
+
+public class EntityInputStreamTest {
+  @Test
+  public void shouldReplayIncrementallyBufferedStream() throws IOException {
+    for (int length : new int[] {0, 1000, 200000}) {
+      byte[] data = bytes(length);
+      try (EntityInputStream entity = new EntityInputStream(new ByteArrayInputStream(data))) {
+        assertThat(entity.bufferIncrementally(false), is(true));
+        assertThat(entity.isBuffered(), is(true));
+        assertThat(MoreByteStreams.toByteArray(entity), is(data));
+
+        for (int i = 0; i < 2; i++) {
+          entity.restart();
+          assertThat(entity.length(), is(OptionalLong.of(length)));
+          assertThat(MoreByteStreams.toByteArray(entity), is(data));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void shouldReserveIncrementalRecordingFromManager() throws IOException {
+    byte[] data = bytes(100000);
+
+    BufferManager manager = new BufferManager(1024L * 1024L);
+    try (EntityInputStream entity = new EntityInputStream(new ByteArrayInputStream(data))) {
+      entity.bufferIncrementally(false, 256 * 1024, manager);
+      assertThat(MoreByteStreams.toByteArray(entity), is(data));
+      assertThat(manager.getUsage() >= data.length, is(true));
+
+      entity.restart();
+      assertThat(MoreByteStreams.toByteArray(entity), is(data));
+      assertThat(manager.getSpillCount(), is(0L));
+    }
+    assertThat(manager.getUsage(), is(0L));
+
+    BufferManager full = new BufferManager(16L * 1024L);
+    try (EntityInputStream entity = new EntityInputStream(new ByteArrayInputStream(data))) {
+      entity.bufferIncrementally(false, 256 * 1024, full);
+      assertThat(MoreByteStreams.toByteArray(entity), is(data));
+      assertThat(full.getSpillCount(), is(1L));
+      assertThat(full.getUsage(), is(0L));
+
+      entity.restart();
+      assertThat(MoreByteStreams.toByteArray(entity), is(data));
+    }
+    assertThat(full.getUsage(), is(0L));
+  }
+
+  @Test
+  public void shouldDrainRestOnRestartIfRequested() throws IOException {
+    byte[] data = bytes(100000);
+    try (EntityInputStream entity = new EntityInputStream(new ByteArrayInputStream(data))) {
+      entity.bufferIncrementally(true);
+      assertThat(entity.read(), is(data[0] & 0xFF));
+      assertThat(entity.skip(10L), is(10L));
+
+      entity.restart();
+      assertThat(MoreByteStreams.toByteArray(entity), is(data));
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void shouldNotRestartPartiallyReadStreamWithoutDrain() throws IOException {
+    try (EntityInputStream entity = new EntityInputStream(new ByteArrayInputStream(bytes(10)))) {
+      entity.bufferIncrementally(false);
+      entity.read();
+      entity.restart();
+    }
+  }
+
+  @Test
+  public void shouldReadIntoHeapAndDirectBuffers() throws IOException {
+    byte[] data = bytes(100000);
+    List<InputStreamBufferingStrategy> strategies = Arrays.asList(null,
+        InputStreamBufferingStrategy.MEMORY, InputStreamBufferingStrategy.FILE,
+        InputStreamBufferingStrategy.DIRECT, InputStreamBufferingStrategy.MAPPED_FILE);
+    for (InputStreamBufferingStrategy strategy : strategies) {
+      for (ByteBuffer buf : Arrays.asList(ByteBuffer.allocate(3000),
+          ByteBuffer.allocateDirect(3000))) {
+        EntityInputStream entity = new EntityInputStream(new ByteArrayInputStream(data));
+        try {
+          if (strategy != null)
+            entity.buffer(strategy);
+          ByteArrayOutputStream out = new ByteArrayOutputStream();
+          for (((Buffer) buf).clear(); entity.read(buf) != -1; ((Buffer) buf).clear()) {
+            ((Buffer) buf).flip();
+            byte[] chunk = new byte[buf.remaining()];
+            buf.get(chunk);
+            out.write(chunk);
+          }
+          assertThat(out.toByteArray(), is(data));
+          assertThat(entity.isOpen(), is(true));
+        } finally {
+          entity.close();
+        }
+        assertThat(entity.isOpen(), is(false));
+      }
+    }
+  }
+
+  private static byte[] bytes(int length) {
+    byte[] result = new byte[length];
+    new Random(length).nextBytes(result);
+    return result;
+  }
+}
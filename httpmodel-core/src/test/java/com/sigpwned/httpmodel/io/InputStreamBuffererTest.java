@@ -0,0 +1,263 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2026 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.io;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.OptionalLong;
+import java.util.Random;
+import org.junit.Test;
+import com.sigpwned.httpmodel.core.io.BufferManager;
+import com.sigpwned.httpmodel.core.io.BufferedInputStream;
+import com.sigpwned.httpmodel.core.io.ByteArrayPool;
+import com.sigpwned.httpmodel.core.io.ByteBufferPool;
+import com.sigpwned.httpmodel.core.io.EntityInputStream;
+import com.sigpwned.httpmodel.core.io.InputStreamBufferer;
+import com.sigpwned.httpmodel.core.io.InputStreamBufferingStrategy;
+import com.sigpwned.httpmodel.core.io.buffered.DirectBufferedInputStream;
+import com.sigpwned.httpmodel.core.io.buffered.FileBufferedInputStream;
+import com.sigpwned.httpmodel.core.io.buffered.MappedFileBufferedInputStream;
+import com.sigpwned.httpmodel.core.io.buffered.MemoryBufferedInputStream;
+import com.sigpwned.httpmodel.core.util.MoreByteStreams;
+
+public class InputStreamBuffererTest {
+  @Test
+  public void shouldBufferSmallEntityInMemoryFromPool() throws IOException {
+    ByteArrayPool pool = new ByteArrayPool(1024, 4);
+    InputStreamBufferer bufferer = InputStreamBufferer.newDefaultInstance(4096, pool);
+    byte[] data = bytes(2500);
+
+    for (int i = 0; i < 2; i++) {
+      try (BufferedInputStream buffered = bufferer.buffer(new ByteArrayInputStream(data))) {
+        assertThat(buffered, instanceOf(MemoryBufferedInputStream.class));
+        assertThat(buffered.length(), is(OptionalLong.of(2500L)));
+        assertThat(MoreByteStreams.toByteArray(buffered), is(data));
+      }
+    }
+
+    assertThat(pool.getMissCount(), is(3L));
+    assertThat(pool.getHitCount(), is(3L));
+    assertThat(pool.getPooledCount(), is(3));
+  }
+
+  @Test
+  public void shouldSpillLargeEntityToFileAndRestartRepeatedly() throws IOException {
+    ByteArrayPool pool = new ByteArrayPool(1024, 4);
+    byte[] data = bytes(10000);
+
+    try (EntityInputStream entity = new EntityInputStream(new ByteArrayInputStream(data))) {
+      entity.buffer(() -> InputStreamBufferer.newDefaultInstance(4096, pool));
+      for (int i = 0; i < 3; i++) {
+        entity.restart();
+        assertThat(MoreByteStreams.toByteArray(entity), is(data));
+      }
+    }
+
+    assertThat(pool.getPooledCount(), is(4));
+  }
+
+  @Test
+  public void shouldSpillEntityOfExactlyMaxBufferSizeToFile() throws IOException {
+    byte[] data = bytes(4096);
+    BufferedInputStream buffered = InputStreamBufferer
+        .newDefaultInstance(4096, new ByteArrayPool(1024, 4)).buffer(new ByteArrayInputStream(data));
+    try {
+      assertThat(buffered, instanceOf(FileBufferedInputStream.class));
+      assertThat(MoreByteStreams.toByteArray(buffered), is(data));
+    } finally {
+      buffered.close();
+    }
+  }
+
+  @Test
+  public void shouldRestartMappedFileRepeatedly() throws IOException {
+    byte[] data = bytes(100000);
+
+    try (EntityInputStream entity = new EntityInputStream(new ByteArrayInputStream(data))) {
+      entity.buffer(InputStreamBufferingStrategy.MAPPED_FILE);
+      assertThat(entity.length(), is(OptionalLong.of(100000L)));
+      for (int i = 0; i < 3; i++) {
+        entity.restart();
+        assertThat(entity.skip(10L), is(10L));
+        assertThat(entity.read(), is(data[10] & 0xFF));
+        byte[] rest = MoreByteStreams.toByteArray(entity);
+        assertThat(rest.length, is(data.length - 11));
+        assertThat(rest[rest.length - 1], is(data[data.length - 1]));
+      }
+    }
+  }
+
+  @Test
+  public void shouldMapEmptyFile() throws IOException {
+    BufferedInputStream buffered =
+        InputStreamBufferer.newMappedFileInstance().buffer(new ByteArrayInputStream(new byte[0]));
+    try {
+      assertThat(buffered, instanceOf(MappedFileBufferedInputStream.class));
+      assertThat(buffered.read(), is(-1));
+    } finally {
+      buffered.close();
+    }
+  }
+
+  @Test
+  public void shouldBufferDirectlyAndReleaseOnClose() throws IOException {
+    ByteBufferPool pool = new ByteBufferPool(1024, 8);
+    byte[] data = bytes(3000);
+
+    try (EntityInputStream entity = new EntityInputStream(new ByteArrayInputStream(data))) {
+      entity.buffer(() -> InputStreamBufferer.newDirectInstance(4096, pool));
+      assertThat(entity.length(), is(OptionalLong.of(3000L)));
+      for (int i = 0; i < 2; i++) {
+        entity.restart();
+        assertThat(MoreByteStreams.toByteArray(entity), is(data));
+      }
+      assertThat(pool.getPooledCount(), is(0));
+    }
+
+    assertThat(pool.getPooledCount(), is(3));
+    assertThat(pool.getMissCount(), is(3L));
+  }
+
+  @Test
+  public void shouldSpillDirectToFileAboveCap() throws IOException {
+    ByteBufferPool pool = new ByteBufferPool(1024, 8);
+    byte[] data = bytes(20000);
+
+    BufferedInputStream buffered = InputStreamBufferer.newDirectInstance(4096, pool)
+        .buffer(new ByteArrayInputStream(data));
+    try {
+      assertThat(buffered, instanceOf(FileBufferedInputStream.class));
+      assertThat(MoreByteStreams.toByteArray(buffered), is(data));
+    } finally {
+      buffered.close();
+    }
+
+    buffered = InputStreamBufferer.newDirectInstance(4096, pool)
+        .buffer(new ByteArrayInputStream(data, 0, 100));
+    try {
+      assertThat(buffered, instanceOf(DirectBufferedInputStream.class));
+    } finally {
+      buffered.close();
+    }
+    assertThat(pool.getPooledCount(), is(1));
+  }
+
+  @Test
+  public void shouldReserveWholeDirectSegments() throws IOException {
+    ByteBufferPool pool = new ByteBufferPool(1024, 8);
+    BufferManager manager = new BufferManager(4096);
+    InputStreamBufferer bufferer = InputStreamBufferer.newDirectInstance(4096, pool, manager);
+
+    BufferedInputStream first = bufferer.buffer(new ByteArrayInputStream(bytes(1500)));
+    try {
+      assertThat(first, instanceOf(DirectBufferedInputStream.class));
+      assertThat(manager.getUsage(), is(2048L));
+
+      BufferedInputStream second = bufferer.buffer(new ByteArrayInputStream(bytes(2500)));
+      try {
+        assertThat(second, instanceOf(FileBufferedInputStream.class));
+        assertThat(manager.getSpillCount(), is(1L));
+        assertThat(manager.getUsage(), is(2048L));
+      } finally {
+        second.close();
+      }
+    } finally {
+      first.close();
+    }
+
+    assertThat(manager.getUsage(), is(0L));
+  }
+
+  @Test
+  public void shouldSpillWhenMemoryBudgetIsExhausted() throws IOException {
+    BufferManager manager = new BufferManager(5000);
+    InputStreamBufferer bufferer =
+        InputStreamBufferer.newDefaultInstance(4096, new ByteArrayPool(1024, 4), manager);
+    byte[] data = bytes(3000);
+
+    BufferedInputStream first = bufferer.buffer(new ByteArrayInputStream(data));
+    try {
+      assertThat(first, instanceOf(MemoryBufferedInputStream.class));
+      assertThat(manager.getUsage(), is(3000L));
+
+      BufferedInputStream second = bufferer.buffer(new ByteArrayInputStream(data));
+      try {
+        assertThat(second, instanceOf(FileBufferedInputStream.class));
+        assertThat(MoreByteStreams.toByteArray(second), is(data));
+        assertThat(manager.getSpillCount(), is(1L));
+      } finally {
+        second.close();
+      }
+
+      BufferedInputStream third =
+          InputStreamBufferer.newMemoryInstance(manager).buffer(new ByteArrayInputStream(data));
+      try {
+        assertThat(third, instanceOf(FileBufferedInputStream.class));
+        assertThat(MoreByteStreams.toByteArray(third), is(data));
+        assertThat(manager.getSpillCount(), is(2L));
+      } finally {
+        third.close();
+      }
+    } finally {
+      first.close();
+    }
+
+    assertThat(manager.getUsage(), is(0L));
+    assertThat(manager.getHighWaterMark(), is(3000L));
+  }
+
+  @Test
+  public void shouldTransferRestOfBufferedEntityForEachStrategy() throws IOException {
+    byte[] data = bytes(100000);
+    byte[] rest = Arrays.copyOfRange(data, 100, data.length);
+
+    for (InputStreamBufferingStrategy strategy : Arrays.asList(InputStreamBufferingStrategy.MEMORY,
+        InputStreamBufferingStrategy.FILE, InputStreamBufferingStrategy.DIRECT,
+        InputStreamBufferingStrategy.MAPPED_FILE)) {
+      try (EntityInputStream entity = new EntityInputStream(new ByteArrayInputStream(data))) {
+        entity.buffer(strategy);
+
+        MoreByteStreams.read(entity, new byte[100]);
+        ByteArrayOutputStream channelOut = new ByteArrayOutputStream();
+        assertThat(entity.transferTo(Channels.newChannel(channelOut)), is((long) rest.length));
+        assertThat(channelOut.toByteArray(), is(rest));
+        assertThat(entity.read(), is(-1));
+
+        entity.restart();
+        ByteArrayOutputStream streamOut = new ByteArrayOutputStream();
+        assertThat(entity.transferTo(streamOut), is((long) data.length));
+        assertThat(streamOut.toByteArray(), is(data));
+        assertThat(entity.transferTo(streamOut), is(0L));
+      }
+    }
+  }
+
+  private static byte[] bytes(int length) {
+    byte[] result = new byte[length];
+    new Random(length).nextBytes(result);
+    return result;
+  }
+}
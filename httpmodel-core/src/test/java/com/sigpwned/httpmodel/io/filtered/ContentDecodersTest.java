@@ -0,0 +1,126 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2026 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.io.filtered;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+import org.junit.Test;
+import com.sigpwned.httpmodel.core.io.ByteFilterSource;
+import com.sigpwned.httpmodel.core.io.InflaterPool;
+import com.sigpwned.httpmodel.core.io.filtered.ContentDecoders;
+import com.sigpwned.httpmodel.core.util.MoreByteStreams;
+
+public class ContentDecodersTest {
+  @Test
+  public void shouldDecodeGzipWithPooledInflaters() throws IOException {
+    InflaterPool pool = new InflaterPool(true, 4);
+    byte[] data = data(100000);
+    byte[] encoded = gzip(data);
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(decode(ContentDecoders.gzip(pool), encoded), is(data));
+    }
+
+    assertThat(pool.getMissCount(), is(1L));
+    assertThat(pool.getHitCount(), is(2L));
+    assertThat(pool.getPooledCount(), is(1));
+  }
+
+  @Test
+  public void shouldDecodeConcatenatedGzipMembers() throws IOException {
+    byte[] first = data(1000);
+    byte[] second = data(2000);
+    ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+    encoded.write(gzip(first));
+    encoded.write(gzip(second));
+
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    expected.write(first);
+    expected.write(second);
+
+    assertThat(decode(ContentDecoders.gzip(), encoded.toByteArray()), is(expected.toByteArray()));
+  }
+
+  @Test(expected = ZipException.class)
+  public void shouldRejectCorruptGzipTrailer() throws IOException {
+    byte[] encoded = gzip(data(1000));
+    encoded[encoded.length - 5] = (byte) (encoded[encoded.length - 5] ^ 0xFF);
+    decode(ContentDecoders.gzip(), encoded);
+  }
+
+  @Test
+  public void shouldDecodeZlibAndRawDeflate() throws IOException {
+    byte[] data = data(50000);
+    for (boolean nowrap : new boolean[] {false, true}) {
+      ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+      Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, nowrap);
+      try (DeflaterOutputStream out = new DeflaterOutputStream(encoded, deflater)) {
+        out.write(data);
+      } finally {
+        deflater.end();
+      }
+      assertThat(decode(ContentDecoders.deflate(), encoded.toByteArray()), is(data));
+    }
+  }
+
+  @Test
+  public void shouldDecodeEmptyEntityToEmptyEntity() throws IOException {
+    assertThat(decode(ContentDecoders.gzip(), new byte[0]), is(new byte[0]));
+    assertThat(decode(ContentDecoders.deflate(), new byte[0]), is(new byte[0]));
+  }
+
+  @Test
+  public void shouldFindDecodersForSupportedCodings() {
+    assertThat(ContentDecoders.forContentCoding(" GZIP ").isPresent(), is(true));
+    assertThat(ContentDecoders.forContentCoding("x-gzip").isPresent(), is(true));
+    assertThat(ContentDecoders.forContentCoding("deflate").isPresent(), is(true));
+    assertThat(ContentDecoders.forContentCoding("br"), is(Optional.empty()));
+  }
+
+  private static byte[] decode(ByteFilterSource decoder, byte[] encoded) throws IOException {
+    try (InputStream in = decoder.filter(new ByteArrayInputStream(encoded))) {
+      return MoreByteStreams.toByteArray(in);
+    }
+  }
+
+  private static byte[] gzip(byte[] data) throws IOException {
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+    try (GZIPOutputStream out = new GZIPOutputStream(result)) {
+      out.write(data);
+    }
+    return result.toByteArray();
+  }
+
+  private static byte[] data(int length) {
+    byte[] result = new byte[length];
+    for (int i = 0; i < length; i++)
+      result[i] = (byte) ((i * 31) % 251);
+    return result;
+  }
+}
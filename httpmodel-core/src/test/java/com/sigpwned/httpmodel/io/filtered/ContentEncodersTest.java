@@ -0,0 +1,107 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2026 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.io.filtered;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import org.junit.Test;
+import com.sigpwned.httpmodel.core.io.ByteFilterSource;
+import com.sigpwned.httpmodel.core.io.DeflaterPool;
+import com.sigpwned.httpmodel.core.io.filtered.ContentDecoders;
+import com.sigpwned.httpmodel.core.io.filtered.ContentEncoders;
+import com.sigpwned.httpmodel.core.util.MoreByteStreams;
+
+public class ContentEncodersTest {
+  @Test
+  public void shouldEncodeGzipWithPooledDeflaters() throws IOException {
+    DeflaterPool pool = new DeflaterPool(true, 4);
+    byte[] data = data(100000);
+
+    for (int i = 0; i < 3; i++) {
+      byte[] encoded = encode(ContentEncoders.gzip(pool, Deflater.DEFAULT_COMPRESSION), data);
+      assertThat(encoded.length < data.length, is(true));
+      try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(encoded))) {
+        assertThat(MoreByteStreams.toByteArray(in), is(data));
+      }
+      assertThat(decode(ContentDecoders.gzip(), encoded), is(data));
+    }
+
+    assertThat(pool.getMissCount(), is(1L));
+    assertThat(pool.getHitCount(), is(2L));
+    assertThat(pool.getPooledCount(), is(1));
+  }
+
+  @Test
+  public void shouldEncodeDeflateAsZlib() throws IOException {
+    byte[] data = data(50000);
+    byte[] encoded = encode(ContentEncoders.deflate(), data);
+    try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(encoded))) {
+      assertThat(MoreByteStreams.toByteArray(in), is(data));
+    }
+  }
+
+  @Test
+  public void shouldEncodeEmptyEntity() throws IOException {
+    byte[] encoded = encode(ContentEncoders.gzip(), new byte[0]);
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(encoded))) {
+      assertThat(MoreByteStreams.toByteArray(in), is(new byte[0]));
+    }
+  }
+
+  @Test
+  public void shouldHonorCompressionLevel() throws IOException {
+    byte[] data = data(100000);
+    byte[] stored = encode(ContentEncoders.gzip(Deflater.NO_COMPRESSION), data);
+    byte[] compressed = encode(ContentEncoders.gzip(Deflater.BEST_COMPRESSION), data);
+    assertThat(stored.length > data.length, is(true));
+    assertThat(compressed.length < data.length / 10, is(true));
+    assertThat(decode(ContentDecoders.gzip(), stored), is(data));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectInvalidLevel() {
+    ContentEncoders.gzip(10);
+  }
+
+  private static byte[] encode(ByteFilterSource encoder, byte[] data) throws IOException {
+    try (InputStream in = encoder.filter(new ByteArrayInputStream(data))) {
+      return MoreByteStreams.toByteArray(in);
+    }
+  }
+
+  private static byte[] decode(ByteFilterSource decoder, byte[] encoded) throws IOException {
+    try (InputStream in = decoder.filter(new ByteArrayInputStream(encoded))) {
+      return MoreByteStreams.toByteArray(in);
+    }
+  }
+
+  private static byte[] data(int length) {
+    byte[] result = new byte[length];
+    for (int i = 0; i < length; i++)
+      result[i] = (byte) ((i * 31) % 251);
+    return result;
+  }
+}
@@ -20,6 +20,7 @@
 package com.sigpwned.httpmodel.util;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import org.junit.Test;
 import com.sigpwned.httpmodel.core.util.ModelHttpEncodings;
@@ -34,4 +35,45 @@ public class ModelHttpEncodingsTest {
   public void shouldDecodeProperly() {
     assertThat(ModelHttpEncodings.urldecode("hello%2C%20world%21"), is("hello, world!"));
   }
+
+  @Test
+  public void shouldReturnSameInstanceWhenNothingToEncodeOrDecode() {
+    String s = "hello-world_1.0";
+    assertThat(ModelHttpEncodings.urlencode(s), sameInstance(s));
+    assertThat(ModelHttpEncodings.urldecode(s), sameInstance(s));
+    assertThat(ModelHttpEncodings.formencode(s), sameInstance(s));
+    assertThat(ModelHttpEncodings.formdecode(s), sameInstance(s));
+  }
+
+  @Test
+  public void shouldAppendEncodedToBuilder() {
+    StringBuilder out = new StringBuilder("a=");
+    ModelHttpEncodings.urlencode("b c", out).append('&');
+    ModelHttpEncodings.urlencode("d", out);
+    assertThat(out.toString(), is("a=b%20c&d"));
+  }
+
+  @Test
+  public void shouldEncodeNonAsciiAsUtf8() {
+    assertThat(ModelHttpEncodings.urlencode("caf\u00e9 \ud83d\ude00"),
+        is("caf%C3%A9%20%F0%9F%98%80"));
+    assertThat(ModelHttpEncodings.urldecode("caf%C3%A9%20%F0%9F%98%80"),
+        is("caf\u00e9 \ud83d\ude00"));
+    assertThat(ModelHttpEncodings.urldecode("caf\u00e9%20"), is("caf\u00e9 "));
+  }
+
+  @Test
+  public void shouldEncodeComponentsWithTheirOwnSafeCharacters() {
+    assertThat(ModelHttpEncodings.urlencodePathSegment("a:b@c/d e"), is("a:b@c%2Fd%20e"));
+    assertThat(ModelHttpEncodings.urlencodeQueryComponent("a/b?c=d&e+f"),
+        is("a/b?c%3Dd%26e%2Bf"));
+    assertThat(ModelHttpEncodings.formencode("a b*c~"), is("a+b*c%7E"));
+    assertThat(ModelHttpEncodings.formdecode("a+b*c%7E"), is("a b*c~"));
+    assertThat(ModelHttpEncodings.urldecode("a+b"), is("a+b"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectIncompletePercentEncoding() {
+    ModelHttpEncodings.urldecode("hello%2");
+  }
 }
@@ -0,0 +1,63 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 - 2026 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import org.junit.Test;
+import com.sigpwned.httpmodel.core.model.ModelHttpHeaders;
+import com.sigpwned.httpmodel.core.util.ModelHttpHeaderNames;
+
+public class ModelHttpHeaderNamesTest {
+  @Test
+  public void shouldCanonicalizeEveryWellKnownNameToItsConstant() throws Exception {
+    for (Field field : ModelHttpHeaderNames.class.getFields()) {
+      if (!Modifier.isStatic(field.getModifiers()) || field.getType() != String.class)
+        continue;
+      String constant = (String) field.get(null);
+      assertThat(ModelHttpHeaderNames.canonicalize(constant), sameInstance(constant));
+      assertThat(ModelHttpHeaderNames.canonicalize(constant.toUpperCase()), sameInstance(constant));
+      assertThat(ModelHttpHeaderNames.canonicalize(new String(constant)), sameInstance(constant));
+    }
+  }
+
+  @Test
+  public void shouldCanonicalizeMixedCaseWellKnownName() {
+    assertThat(ModelHttpHeaderNames.canonicalize("Content-Type"),
+        sameInstance(ModelHttpHeaderNames.CONTENT_TYPE));
+    assertThat(ModelHttpHeaders.Header.of("Content-Type", "text/plain").getName(),
+        sameInstance(ModelHttpHeaderNames.CONTENT_TYPE));
+  }
+
+  @Test
+  public void shouldReturnLowercaseUnknownNameUnchanged() {
+    String name = "x-request-id";
+    assertThat(ModelHttpHeaderNames.canonicalize(name), sameInstance(name));
+  }
+
+  @Test
+  public void shouldLowercaseUnknownNameAsciiOnly() {
+    assertThat(ModelHttpHeaderNames.canonicalize("X-Request-ID"), is("x-request-id"));
+    assertThat(ModelHttpHeaderNames.canonicalize("X-ÉTÉ"), is("x-ÉtÉ"));
+  }
+}
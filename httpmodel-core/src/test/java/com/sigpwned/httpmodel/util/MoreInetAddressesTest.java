@@ -0,0 +1,74 @@
+/*-
+ * =================================LICENSE_START==================================
+ * httpmodel-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.httpmodel.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import org.junit.Test;
+import com.sigpwned.httpmodel.core.util.MoreInetAddresses;
+
+public class MoreInetAddressesTest {
+  @Test
+  public void shouldParseValidInet4Addresses() throws UnknownHostException {
+    for (String s : Arrays.asList("0.0.0.0", "127.0.0.1", "255.255.255.255", "10.20.30.40")) {
+      assertThat(MoreInetAddresses.parseInet4Address(s), is(InetAddress.getByName(s)));
+    }
+  }
+
+  @Test
+  public void shouldRejectInvalidInet4Addresses() {
+    for (String s : Arrays.asList("", "1.2.3", "1.2.3.4.5", "256.1.1.1", "01.2.3.4", "1.2.3.",
+        ".1.2.3", "1..2.3", "1.2.3.4a", "example.com", "1234.1.1.1")) {
+      assertThat(s, MoreInetAddresses.parseInet4Address(s), is(nullValue()));
+    }
+  }
+
+  @Test
+  public void shouldParseValidInet6Addresses() throws UnknownHostException {
+    for (String s : Arrays.asList("::", "::1", "1::", "2001:0db8:85a3:0000:0000:8a2e:0370:7334",
+        "2001:db8::8a2e:370:7334", "1:2:3:4:5:6:7::", "::1:2:3:4:5:6:7", "::ffff:1.2.3.4",
+        "1:2:3:4:5:6:1.2.3.4", "fe80::1%1", "ABCD:ef01::")) {
+      byte[] expected = InetAddress.getByName(s).getAddress();
+      if (expected.length == 4) {
+        // The JDK returns IPv4-mapped addresses as Inet4Address
+        byte[] mapped = new byte[16];
+        mapped[10] = (byte) 0xff;
+        mapped[11] = (byte) 0xff;
+        System.arraycopy(expected, 0, mapped, 12, 4);
+        expected = mapped;
+      }
+      assertThat(s, MoreInetAddresses.parseInet6Address(s).getAddress(), is(expected));
+    }
+    assertThat(MoreInetAddresses.parseInet6Address("fe80::1%1").getScopeId(), is(1));
+  }
+
+  @Test
+  public void shouldRejectInvalidInet6Addresses() {
+    for (String s : Arrays.asList("", ":", ":::", "1:::2", "1::2::3", ":1:2:3:4:5:6:7",
+        "1:2:3:4:5:6:7:", "1:2:3:4:5:6:7:8:9", "1:2:3:4:5:6:7", "12345::", "g::",
+        "::1.2.3", "1:2:3:4:5:6:7:1.2.3.4", "::1.2.3.4:5", "127.0.0.1", "fe80::1%")) {
+      assertThat(s, MoreInetAddresses.parseInet6Address(s), is(nullValue()));
+    }
+  }
+}
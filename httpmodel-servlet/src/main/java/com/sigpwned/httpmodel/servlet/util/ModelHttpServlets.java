@@ -37,7 +37,6 @@ import com.sigpwned.httpmodel.core.model.ModelHttpResponse;
 import com.sigpwned.httpmodel.core.model.ModelHttpUrl;
 import com.sigpwned.httpmodel.core.util.ModelHttpHeaderNames;
 import com.sigpwned.httpmodel.core.util.ModelHttpMediaTypes;
-import com.sigpwned.httpmodel.core.util.MoreByteStreams;
 
 /**
  * This is server side.
@@ -69,7 +68,7 @@ public final class ModelHttpServlets {
       Enumeration<String> headerValues = request.getHeaders(headerName);
       while (headerValues.hasMoreElements()) {
         String headerValue = headerValues.nextElement();
-        headers.add(ModelHttpHeaders.Header.of(headerName.toLowerCase(), headerValue));
+        headers.add(ModelHttpHeaders.Header.of(headerName, headerValue));
       }
     }
 
@@ -118,7 +117,7 @@ public final class ModelHttpServlets {
       });
 
       try (OutputStream out = result.getOutputStream()) {
-        MoreByteStreams.drain(response, out);
+        response.transferTo(out);
       }
     }
 